@@ -0,0 +1,33 @@
+package com.gff.spacenauts.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import com.gff.spacenauts.ashley.SpacenautsEngine;
+import com.gff.spacenauts.ashley.collision.BroadPhase;
+import com.gff.spacenauts.ashley.systems.CollisionSystem;
+
+/**
+ * Times {@link CollisionSystem#update(float)}, broad and narrow phase together. Entities don't move, and hits change nothing.
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class CollisionBenchmark extends SyntheticBenchmark {
+
+	@Param({"rebuild", "incremental", "compact", "sap"})
+	public String broadPhase;
+
+	private CollisionSystem collisions;
+
+	@Override
+	protected void addSystems(SpacenautsEngine engine) {
+		collisions = new CollisionSystem(BroadPhase.Type.getByName(broadPhase));
+		engine.addSystem(collisions);
+	}
+
+	@Benchmark
+	public void update() {
+		collisions.update(DELTA);
+	}
+}
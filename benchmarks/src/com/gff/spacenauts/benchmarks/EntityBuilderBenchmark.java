@@ -0,0 +1,38 @@
+package com.gff.spacenauts.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import com.badlogic.ashley.core.Entity;
+import com.gff.spacenauts.ashley.EntityBuilder;
+import com.gff.spacenauts.ashley.SpacenautsEngine;
+
+/**
+ * Times {@link EntityBuilder#buildById(String)} for a few enemies, along with adding the entity to the world and removing it,
+ * which sends it and its components back to the engine's pools.
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class EntityBuilderBenchmark extends SyntheticBenchmark {
+
+	@Param({"dummy", "black_interceptor", "green_tank", "rock", "bat"})
+	public String id;
+
+	private SpacenautsEngine engine;
+	private EntityBuilder builder;
+
+	@Override
+	protected void addSystems(SpacenautsEngine engine) {
+		this.engine = engine;
+		builder = world.getBuilder();
+	}
+
+	@Benchmark
+	public Entity buildById() {
+		Entity entity = builder.buildById(id);
+		engine.addEntity(entity);
+		engine.removeEntity(entity);
+		return entity;
+	}
+}
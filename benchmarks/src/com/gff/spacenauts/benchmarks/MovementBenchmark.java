@@ -0,0 +1,33 @@
+package com.gff.spacenauts.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import com.gff.spacenauts.ashley.SpacenautsEngine;
+import com.gff.spacenauts.ashley.systems.BatchedMovementSystem;
+import com.gff.spacenauts.ashley.systems.MovementSystem;
+
+/**
+ * Times one update of the {@link MovementSystem}, or of the {@link BatchedMovementSystem}.
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class MovementBenchmark extends SyntheticBenchmark {
+
+	@Param({"false", "true"})
+	public boolean batched;
+
+	private MovementSystem movement;
+
+	@Override
+	protected void addSystems(SpacenautsEngine engine) {
+		movement = batched ? new BatchedMovementSystem() : new MovementSystem();
+		engine.addSystem(movement);
+	}
+
+	@Benchmark
+	public void update() {
+		movement.update(DELTA);
+	}
+}
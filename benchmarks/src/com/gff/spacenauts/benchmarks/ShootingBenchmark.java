@@ -0,0 +1,57 @@
+package com.gff.spacenauts.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.gff.spacenauts.ashley.Families;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.SpacenautsEngine;
+import com.gff.spacenauts.ashley.components.Bullet;
+import com.gff.spacenauts.data.GunData;
+import com.gff.spacenauts.ashley.systems.ShootingSystem;
+
+/**
+ * Times a volley: every ship fires its gun through one update of the {@link ShootingSystem}. The new bullets are then removed,
+ * which is timed as well, so that every volley starts from the same world.
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class ShootingBenchmark extends SyntheticBenchmark {
+
+	private SpacenautsEngine engine;
+	private ShootingSystem shooting;
+	private ImmutableArray<Entity> shooters;
+	private ImmutableArray<Entity> bullets;
+
+	@Override
+	protected void addSystems(SpacenautsEngine engine) {
+		this.engine = engine;
+		shooting = new ShootingSystem(world.getScreen());
+		engine.addSystem(shooting);
+		shooters = engine.getEntitiesFor(Families.SHOOTER_FAMILY);
+		bullets = engine.getEntitiesFor(Family.all(Bullet.class).get());
+	}
+
+	@Benchmark
+	public int volley() {
+		int before = bullets.size();
+
+		for (int i = 0 ; i < shooters.size() ; i++) {
+			for (GunData gun : Mappers.gm.get(shooters.get(i)).guns)
+				gun.triggered = true;
+		}
+
+		shooting.update(DELTA);
+
+		int shot = bullets.size() - before;
+
+		//New bullets are the last ones of the family.
+		for (int i = bullets.size() - 1 ; i >= before ; i--)
+			engine.removeEntity(bullets.get(i));
+
+		return shot;
+	}
+}
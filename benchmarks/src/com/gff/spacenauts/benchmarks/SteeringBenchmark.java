@@ -0,0 +1,28 @@
+package com.gff.spacenauts.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.gff.spacenauts.ashley.SpacenautsEngine;
+import com.gff.spacenauts.ashley.systems.SteeringSystem;
+
+/**
+ * Times one update of the {@link SteeringSystem}, with every ship seeking the player.
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class SteeringBenchmark extends SyntheticBenchmark {
+
+	private SteeringSystem steering;
+
+	@Override
+	protected void addSystems(SpacenautsEngine engine) {
+		steering = new SteeringSystem();
+		engine.addSystem(steering);
+	}
+
+	@Benchmark
+	public void update() {
+		steering.update(DELTA);
+	}
+}
@@ -0,0 +1,71 @@
+package com.gff.spacenauts.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gff.spacenauts.ashley.SpacenautsEngine;
+
+/**
+ * <p>
+ * Base of all benchmarks run on a {@link SyntheticWorld}. Each one is run for every entity count and bullet density, and reports
+ * the average time of a single operation, usually one update of the benchmarked system.
+ * </p>
+ *
+ * <p>
+ * The world is built once per trial. Systems are added to its engine, so that they see its entities, but they're updated
+ * on their own, without the rest of the engine.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public abstract class SyntheticBenchmark {
+
+	protected static final float DELTA = 0.01f;
+	private static final long SEED = 42;
+
+	@Param({"100", "1000", "10000"})
+	public int entities;
+
+	@Param({"0.2", "0.8"})
+	public float bulletDensity;
+
+	protected SyntheticWorld world;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		world = new SyntheticWorld(entities, bulletDensity, SEED);
+		addSystems(world.getEngine());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		world.dispose();
+		world = null;
+	}
+
+	/**
+	 * Adds the benchmarked systems to the world's engine.
+	 *
+	 * @param engine
+	 */
+	protected abstract void addSystems(SpacenautsEngine engine);
+}
@@ -0,0 +1,363 @@
+package com.gff.spacenauts.benchmarks;
+
+import java.util.Random;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.ai.steer.behaviors.Seek;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.backends.headless.mock.audio.MockSound;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pools;
+import com.gff.spacenauts.AssetsPaths;
+import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.Logger;
+import com.gff.spacenauts.ashley.EntityBuilder;
+import com.gff.spacenauts.ashley.SpacenautsEngine;
+import com.gff.spacenauts.ashley.SteeringMechanism;
+import com.gff.spacenauts.ashley.components.Angle;
+import com.gff.spacenauts.ashley.components.AngularVelocity;
+import com.gff.spacenauts.ashley.components.Body;
+import com.gff.spacenauts.ashley.components.Bullet;
+import com.gff.spacenauts.ashley.components.CollisionDamage;
+import com.gff.spacenauts.ashley.components.Enemy;
+import com.gff.spacenauts.ashley.components.Friendly;
+import com.gff.spacenauts.ashley.components.Gun;
+import com.gff.spacenauts.ashley.components.Hittable;
+import com.gff.spacenauts.ashley.components.Player;
+import com.gff.spacenauts.ashley.components.Position;
+import com.gff.spacenauts.ashley.components.Steering;
+import com.gff.spacenauts.ashley.components.Timers;
+import com.gff.spacenauts.ashley.components.Velocity;
+import com.gff.spacenauts.ashley.components.WorldCamera;
+import com.gff.spacenauts.data.GunData;
+import com.gff.spacenauts.desktop.HeadlessGL;
+import com.gff.spacenauts.listeners.TimerListener;
+import com.gff.spacenauts.screens.GameScreen;
+
+/**
+ * <p>
+ * A {@link SpacenautsEngine} filled with made up entities, built the same way every time from a seed. It needs no window
+ * nor real assets: GL goes to a {@link HeadlessGL}, textures are blank, sounds are mocks and every atlas region exists.
+ * The only file read is the vertex data, by the {@link EntityBuilder}, so benchmarks must run from the assets folder.
+ * </p>
+ *
+ * <p>
+ * Besides the camera and the player, the world holds the given number of entities, scattered over the camera's view:
+ * </p>
+ *
+ * <ul>
+ * <li><b>bullets</b>, as many as the bullet density says, half friendly and half enemy, flying in random directions.</li>
+ * <li><b>ships</b>, the rest: enemies with a body, a gun, a steering behavior seeking the player and a timer.</li>
+ * </ul>
+ *
+ * <p>
+ * Hit and timer listeners do nothing, so that the world stays the same however long it's updated.
+ * The world becomes the one {@link GameScreen#getEngine()} returns until it's disposed.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class SyntheticWorld {
+
+	private static final float[] SHIP_VERTICES = {-0.5f, -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f};
+
+	private SpacenautsEngine engine;
+	private GameScreen screen;
+	private SyntheticAssets assets;
+	private EntityBuilder builder;
+	private Random random;
+	private int bullets = 0;
+	private int ships = 0;
+
+	/**
+	 * @param entities how many entities to build, camera and player aside.
+	 * @param bulletDensity the share of bullets among them, from 0 to 1.
+	 * @param seed
+	 */
+	public SyntheticWorld(int entities, float bulletDensity, long seed) {
+		if (Gdx.gl == null) Gdx.gl = Gdx.gl20 = HeadlessGL.create();
+		if (Gdx.files == null) Gdx.files = new HeadlessFiles();
+
+		//There's no application to log to.
+		Logger.logging = false;
+
+		random = new Random(seed);
+		engine = new SpacenautsEngine();
+		GameScreen.setEngine(engine);
+		assets = new SyntheticAssets();
+		screen = new GameScreen(null, null);
+		screen.handAssets(assets);
+
+		engine.addEntity(buildCamera());
+		engine.addEntity(buildPlayer());
+
+		int bulletCount = Math.round(entities * bulletDensity);
+
+		for (int i = 0 ; i < entities ; i++)
+			engine.addEntity(i < bulletCount ? buildBullet(i % 2 == 0) : buildShip());
+	}
+
+	public SpacenautsEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * @return a screen that only holds the world's assets, for systems and builders that need one.
+	 */
+	public GameScreen getScreen() {
+		return screen;
+	}
+
+	/**
+	 * @return an EntityBuilder working on this world, built the first time it's asked for.
+	 */
+	public EntityBuilder getBuilder() {
+		if (builder == null)
+			builder = new EntityBuilder(screen);
+
+		return builder;
+	}
+
+	public int getBulletCount() {
+		return bullets;
+	}
+
+	public int getShipCount() {
+		return ships;
+	}
+
+	public void dispose() {
+		engine.clear();
+		engine.clearPools();
+		assets.dispose();
+
+		if (GameScreen.getEngine() == engine)
+			GameScreen.setEngine(null);
+	}
+
+	private Entity buildCamera() {
+		Entity camera = engine.createEntity();
+		WorldCamera worldCamera = engine.createComponent(WorldCamera.class);
+		Position pos = engine.createComponent(Position.class);
+
+		worldCamera.viewport.setWorldSize(Globals.TARGET_CAMERA_WIDTH, Globals.TARGET_CAMERA_HEIGHT);
+		pos.value.set(Globals.STARTING_CAMERA_X, Globals.STARTING_CAMERA_Y);
+
+		return camera.add(worldCamera).add(pos).add(engine.createComponent(Velocity.class))
+					 .add(engine.createComponent(Angle.class)).add(engine.createComponent(AngularVelocity.class));
+	}
+
+	private Entity buildPlayer() {
+		Entity player = engine.createEntity();
+		addMotion(player, Globals.STARTING_CAMERA_X, Globals.STARTING_CAMERA_Y * 0.5f, 0);
+		addBody(player);
+
+		return player.add(engine.createComponent(Player.class)).add(engine.createComponent(Friendly.class))
+					 .add(engine.createComponent(Hittable.class));
+	}
+
+	private Entity buildShip() {
+		Entity ship = engine.createEntity();
+		addMotion(ship, randomX(), randomY(), 0.5f);
+		addBody(ship);
+
+		CollisionDamage cd = engine.createComponent(CollisionDamage.class);
+		Gun gun = engine.createComponent(Gun.class);
+		Steering steering = engine.createComponent(Steering.class);
+		Timers timers = engine.createComponent(Timers.class);
+
+		cd.damageDealt = 1;
+
+		GunData gunData = Pools.get(GunData.class).obtain();
+		gunData.speed = 10;
+		gunData.bulletDamage = 1;
+		gunData.pOffset.set(1, 0);
+		gun.guns.add(gunData);
+
+		SteeringMechanism adapter = SteeringMechanism.getFor(ship);
+		adapter.setMaxLinearSpeed(3);
+		adapter.setMaxLinearAcceleration(5);
+		steering.adapter = adapter;
+		steering.behavior = new Seek<Vector2>(adapter, engine.getPlayerTarget());
+
+		timers.listeners.add(new TimerListener(TimerListener.TimerType.INTERVAL, 0.25f + random.nextFloat()) {
+			@Override
+			protected boolean onActivation(Entity entity) {
+				return true;
+			}
+		});
+
+		ships++;
+
+		return ship.add(cd).add(gun).add(steering).add(timers)
+				   .add(engine.createComponent(Hittable.class)).add(engine.createComponent(Enemy.class));
+	}
+
+	private Entity buildBullet(boolean friendly) {
+		Entity bullet = engine.createEntity();
+		addMotion(bullet, randomX(), randomY(), 10);
+
+		CollisionDamage cd = engine.createComponent(CollisionDamage.class);
+		cd.damageDealt = 1;
+
+		bullets++;
+
+		return bullet.add(cd).add(engine.createComponent(Hittable.class)).add(engine.createComponent(Bullet.class))
+					 .add(friendly ? engine.createComponent(Friendly.class) : engine.createComponent(Enemy.class));
+	}
+
+	private void addMotion(Entity entity, float x, float y, float speed) {
+		Position pos = engine.createComponent(Position.class);
+		Velocity vel = engine.createComponent(Velocity.class);
+		Angle ang = engine.createComponent(Angle.class);
+
+		pos.value.set(x, y);
+		ang.value = random.nextFloat() * MathUtils.PI2;
+		vel.value.set(MathUtils.cos(ang.value), MathUtils.sin(ang.value)).scl(speed);
+
+		entity.add(pos).add(vel).add(ang).add(engine.createComponent(AngularVelocity.class));
+	}
+
+	private void addBody(Entity entity) {
+		Body body = engine.createComponent(Body.class);
+		Position pos = entity.getComponent(Position.class);
+
+		body.polygon.setVertices(SHIP_VERTICES.clone());
+		body.polygon.setPosition(pos.value.x, pos.value.y);
+		entity.add(body);
+	}
+
+	private float randomX() {
+		return random.nextFloat() * Globals.TARGET_CAMERA_WIDTH;
+	}
+
+	private float randomY() {
+		return random.nextFloat() * Globals.TARGET_CAMERA_HEIGHT;
+	}
+
+	/**
+	 * The assets EntityBuilder and ShootingSystem ask for, with nothing behind them.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	private static class SyntheticAssets extends AssetManager {
+
+		private SyntheticAssets() {
+			Sound sound = new MockSound();
+
+			addAsset(AssetsPaths.ATLAS_TEXTURES, TextureAtlas.class, new SyntheticAtlas());
+			addAsset(AssetsPaths.SFX_EXPLOSION, Sound.class, sound);
+			addAsset(AssetsPaths.SFX_POWERUP, Sound.class, sound);
+			addAsset(AssetsPaths.SFX_LASER_4, Sound.class, sound);
+		}
+	}
+
+	/**
+	 * An atlas with a region for every name: the whole of a blank texture, large enough to be split into any animation's frames.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	private static class SyntheticAtlas extends TextureAtlas {
+
+		private static final int SIZE = 1024;
+
+		private AtlasRegion region = new AtlasRegion(new Texture(new BlankTextureData(SIZE)), 0, 0, SIZE, SIZE);
+
+		@Override
+		public AtlasRegion findRegion(String name) {
+			return region;
+		}
+
+		@Override
+		public Sprite createSprite(String name) {
+			return new Sprite(region);
+		}
+
+		@Override
+		public void dispose() {
+			super.dispose();
+			region.getTexture().dispose();
+		}
+	}
+
+	/**
+	 * Texture data with no pixels, so that no native code is needed to build a texture.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	private static class BlankTextureData implements TextureData {
+
+		private final int size;
+
+		private BlankTextureData(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public TextureDataType getType() {
+			return TextureDataType.Custom;
+		}
+
+		@Override
+		public boolean isPrepared() {
+			return true;
+		}
+
+		@Override
+		public void prepare() {
+		}
+
+		@Override
+		public Pixmap consumePixmap() {
+			return null;
+		}
+
+		@Override
+		public boolean disposePixmap() {
+			return false;
+		}
+
+		@Override
+		public void consumeCustomData(int target) {
+		}
+
+		@Override
+		public int getWidth() {
+			return size;
+		}
+
+		@Override
+		public int getHeight() {
+			return size;
+		}
+
+		@Override
+		public Pixmap.Format getFormat() {
+			return Pixmap.Format.RGBA8888;
+		}
+
+		@Override
+		public boolean useMipMaps() {
+			return false;
+		}
+
+		@Override
+		public boolean isManaged() {
+			return false;
+		}
+	}
+}
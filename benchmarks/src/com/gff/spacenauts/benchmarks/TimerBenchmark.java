@@ -0,0 +1,28 @@
+package com.gff.spacenauts.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.gff.spacenauts.ashley.SpacenautsEngine;
+import com.gff.spacenauts.ashley.systems.TimerSystem;
+
+/**
+ * Times one update of the {@link TimerSystem}, with one interval timer per ship.
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class TimerBenchmark extends SyntheticBenchmark {
+
+	private TimerSystem timers;
+
+	@Override
+	protected void addSystems(SpacenautsEngine engine) {
+		timers = new TimerSystem();
+		engine.addSystem(timers);
+	}
+
+	@Benchmark
+	public void update() {
+		timers.update(DELTA);
+	}
+}
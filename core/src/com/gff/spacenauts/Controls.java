@@ -4,7 +4,10 @@ import com.badlogic.ashley.core.Entity;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputAdapter;
 import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.gff.spacenauts.ashley.Families;
 import com.gff.spacenauts.ashley.Mappers;
 import com.gff.spacenauts.ashley.components.Angle;
 import com.gff.spacenauts.ashley.components.AngularVelocity;
@@ -13,6 +16,7 @@ import com.gff.spacenauts.ashley.components.Gun;
 import com.gff.spacenauts.ashley.components.Position;
 import com.gff.spacenauts.ashley.components.Velocity;
 import com.gff.spacenauts.ashley.components.WorldCamera;
+import com.gff.spacenauts.ashley.systems.CollisionSystem;
 import com.gff.spacenauts.ashley.systems.PhysicsSystem;
 import com.gff.spacenauts.data.GunData;
 import com.gff.spacenauts.screens.GameScreen;
@@ -34,6 +38,8 @@ public class Controls extends InputAdapter {
 	private Vector2 startVector = new Vector2();
 	private Vector2 translationVector = new Vector2();
 	private Vector2 lastPlayerPos = new Vector2();
+	private Rectangle sweptArea = new Rectangle();
+	private Array<Entity> nearbyObstacles = new Array<Entity>();
 	private int firstFingerPointer = -1;
 	private float shootTimer = 0;
 
@@ -284,8 +290,8 @@ public class Controls extends InputAdapter {
 	}
 
 	/**
-	 * It's a dirty fix but it works. Whenever the player is dragged around {@link PhysicsSystem#getNearbyObstacles()} is called,
-	 * getting all local obstacles. All obstacles are tested against the player's body and the translation vector 
+	 * It's a dirty fix but it works. Whenever the player is dragged around {@link CollisionSystem#queryArea(Rectangle, com.badlogic.ashley.core.Family, Array)} is called,
+	 * getting all obstacles, moving or not, around the area swept by the player's body. All obstacles are tested against the player's body and the translation vector 
 	 * (this to avoid large translation vectors bypassing an obstacle). If they collide, then the translation is undone.
 	 * 
 	 * @param player
@@ -296,8 +302,13 @@ public class Controls extends InputAdapter {
 		Position playerPos = Mappers.pm.get(player);
 		Body playerBody = Mappers.bm.get(player);
 
-		for (Entity obstacle : ps.getNearbyObstacles()) {
+		sweptArea.set(playerBody.polygon.getBoundingRectangle()).merge(lastPlayerPos);
+		ps.getCollisionSystem().queryArea(sweptArea, Families.OBSTACLE_FAMILY, nearbyObstacles);
+
+		for (Entity obstacle : nearbyObstacles) {
 			Body b = Mappers.bm.get(obstacle);
+
+			if (b == null) continue;
 			
 			//Undo movement if player overlaps or bypasses an obstacle
 			if (Intersector.overlapConvexPolygons(b.polygon, playerBody.polygon)
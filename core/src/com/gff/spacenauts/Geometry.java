@@ -47,4 +47,40 @@ public final class Geometry {
 		return copy;
 	}
 	
+	/**
+	 * Intersects the segment going from (x0, y0) to (x1, y1) with an axis aligned rectangle, clipping the segment
+	 * against each pair of the rectangle's sides (slab method).
+	 * 
+	 * @return the fraction of the segment at which it enters the rectangle, 0 if it starts inside it, or -1 if they don't intersect.
+	 */
+	public static float intersectSegmentRectangle(float x0, float y0, float x1, float y1, float minX, float minY, float maxX, float maxY){
+		float tEnter = 0, tExit = 1;
+		float dx = x1 - x0, dy = y1 - y0;
+		
+		if (dx == 0) {
+			if (x0 < minX || x0 > maxX) return -1;
+		} else {
+			float t1 = (minX - x0) / dx, t2 = (maxX - x0) / dx;
+			tEnter = Math.max(tEnter, Math.min(t1, t2));
+			tExit = Math.min(tExit, Math.max(t1, t2));
+		}
+		
+		if (dy == 0) {
+			if (y0 < minY || y0 > maxY) return -1;
+		} else {
+			float t1 = (minY - y0) / dy, t2 = (maxY - y0) / dy;
+			tEnter = Math.max(tEnter, Math.min(t1, t2));
+			tExit = Math.min(tExit, Math.max(t1, t2));
+		}
+		
+		return tEnter <= tExit ? tEnter : -1;
+	}
+	
+	/**
+	 * @see #intersectSegmentRectangle(float, float, float, float, float, float, float, float)
+	 */
+	public static float intersectSegmentRectangle(float x0, float y0, float x1, float y1, Rectangle rect){
+		return intersectSegmentRectangle(x0, y0, x1, y1, rect.x, rect.y, rect.x + rect.width, rect.y + rect.height);
+	}
+	
 }
@@ -21,6 +21,10 @@ public final class Globals {
 	public static String locale = "en-EN";
 	public static int timeout = 100;	//seconds
 	public static float expireCheck;
+	public static String broadPhase = "rebuild";
+	public static float physicsStep = 0.01f;	//seconds
+	public static boolean parallelCollisions = false;
+	public static boolean batchedMovement = false;
 	
 	//Network globals
 	public static final int MULTIPLAYER_PORT = 8400;
@@ -0,0 +1,164 @@
+package com.gff.spacenauts;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * <p>
+ * Records a level as it's played, so that it can be played again exactly the same way, for example by the desktop's headless simulation.
+ * It sits in front of the {@link com.gff.spacenauts.screens.GameScreen GameScreen}'s input processor and writes down every key and touch
+ * event, along with the tick it happened on and how long each tick lasted. Everything random in the game comes from
+ * {@link com.badlogic.gdx.math.MathUtils#random MathUtils.random}, which the screen seeds with the recorder's seed before building the level.
+ * </p>
+ *
+ * <p>
+ * The recording is an {@link InputScript}. It's written to the given file when the level is over, and overwritten by the next level played.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class InputRecorder implements InputProcessor {
+
+	private FileHandle file;
+	private long seed;
+	private InputProcessor processor;
+	private StringBuilder script = new StringBuilder();
+	private long tick = -1;
+	private float lastStep = -1;
+	private long lastStepTick = -1;
+
+	/**
+	 * @param file where to write recordings.
+	 * @param seed
+	 */
+	public InputRecorder (FileHandle file, long seed) {
+		this.file = file;
+		this.seed = seed;
+	}
+
+	/**
+	 * Starts a new recording.
+	 *
+	 * @param map the level's map.
+	 * @param processor the processor events are passed to.
+	 */
+	public void start (String map, InputProcessor processor) {
+		this.processor = processor;
+		tick = -1;
+		lastStep = -1;
+		lastStepTick = -1;
+		script.setLength(0);
+		script.append("map ").append(map).append('\n');
+		script.append("seed ").append(seed).append('\n');
+	}
+
+	/**
+	 * Starts a new tick. Events that follow are played right before the next one.
+	 *
+	 * @param delta how long the tick lasts.
+	 */
+	public void beginTick (float delta) {
+		tick++;
+
+		if (delta != lastStep)
+			step(delta);
+	}
+
+	/**
+	 * Writes the recording to the file.
+	 */
+	public void finish () {
+		if (processor == null) return;
+
+		//The last tick is written down, so that the replay lasts as long as the recording.
+		if (tick >= 0 && lastStepTick != tick)
+			step(lastStep);
+
+		file.writeString(script.toString(), false);
+		processor = null;
+	}
+
+	public long getSeed () {
+		return seed;
+	}
+
+	/**
+	 * @return the ticks recorded so far.
+	 */
+	public long getTicks () {
+		return tick + 1;
+	}
+
+	@Override
+	public boolean keyDown (int keycode) {
+		key("keyDown", keycode);
+		return processor.keyDown(keycode);
+	}
+
+	@Override
+	public boolean keyUp (int keycode) {
+		key("keyUp", keycode);
+		return processor.keyUp(keycode);
+	}
+
+	@Override
+	public boolean keyTyped (char character) {
+		return processor.keyTyped(character);
+	}
+
+	@Override
+	public boolean touchDown (int screenX, int screenY, int pointer, int button) {
+		touch("touchDown", screenX, screenY, pointer);
+		return processor.touchDown(screenX, screenY, pointer, button);
+	}
+
+	@Override
+	public boolean touchUp (int screenX, int screenY, int pointer, int button) {
+		touch("touchUp", screenX, screenY, pointer);
+		return processor.touchUp(screenX, screenY, pointer, button);
+	}
+
+	@Override
+	public boolean touchDragged (int screenX, int screenY, int pointer) {
+		touch("touchDragged", screenX, screenY, pointer);
+		return processor.touchDragged(screenX, screenY, pointer);
+	}
+
+	@Override
+	public boolean mouseMoved (int screenX, int screenY) {
+		return processor.mouseMoved(screenX, screenY);
+	}
+
+	@Override
+	public boolean scrolled (int amount) {
+		return processor.scrolled(amount);
+	}
+
+	/**
+	 * @return the tick events belong to. Backends deliver events before rendering a frame, so they're fed to the tick that's about to begin.
+	 */
+	private long eventTick () {
+		return tick + 1;
+	}
+
+	private void step (float delta) {
+		lastStep = delta;
+		lastStepTick = tick;
+		script.append(tick).append(" step ").append(delta).append('\n');
+	}
+
+	private void key (String event, int keycode) {
+		String name = Input.Keys.toString(keycode);
+
+		//Keys InputScript can't name are of no use to the game anyway.
+		if (name == null || name.indexOf(' ') != -1 || Input.Keys.valueOf(name) != keycode) return;
+
+		script.append(eventTick()).append(' ').append(event).append(' ').append(name).append('\n');
+	}
+
+	private void touch (String event, int screenX, int screenY, int pointer) {
+		script.append(eventTick()).append(' ').append(event).append(' ').append(screenX).append(' ').append(screenY).append(' ').append(pointer).append('\n');
+	}
+}
@@ -0,0 +1,250 @@
+package com.gff.spacenauts;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.LongArray;
+
+/**
+ * <p>
+ * A list of input events, each bound to the tick it happens on, to play a level without anybody at the controls.
+ * Events are fed to an {@link InputProcessor}, usually the one the {@link com.gff.spacenauts.screens.GameScreen GameScreen} set,
+ * exactly as if they came from the keyboard or the screen.
+ * </p>
+ * 
+ * <p>
+ * Scripts are text, one event per line, in tick order. Empty lines and lines starting with # are skipped:
+ * </p>
+ * 
+ * <pre>
+ * # tick event arguments
+ * 0 keyDown W
+ * 120 keyUp W
+ * 130 keyDown Space
+ * 131 keyUp Space
+ * 200 touchDown 240 300 0
+ * 210 touchDragged 260 300 0
+ * 220 touchUp 260 300 0
+ * </pre>
+ * 
+ * <p>
+ * Keys are named as in {@link Input.Keys#valueOf(String)}, e.g. W, Space or Left. Touch events take screen coordinates and an optional pointer, 0 by default.
+ * </p>
+ * 
+ * <p>
+ * Scripts written by an {@link InputRecorder} also hold what's needed to play the level exactly as it was recorded: the map, the seed
+ * of {@link com.badlogic.gdx.math.MathUtils#random MathUtils.random}, and the time each tick lasted, which holds until the next step line:
+ * </p>
+ * 
+ * <pre>
+ * map maps/level1.tmx
+ * seed 1234
+ * 0 step 0.016667
+ * 0 keyDown W
+ * 1 step 0.016801
+ * </pre>
+ * 
+ * @author Alessio Cali'
+ *
+ */
+public class InputScript {
+	
+	private enum Type {
+		KEY_DOWN, KEY_UP, TOUCH_DOWN, TOUCH_UP, TOUCH_DRAGGED
+	}
+	
+	private static class Event {
+		private long tick;
+		private Type type;
+		private int keycode, x, y, pointer;
+	}
+	
+	private Array<Event> events = new Array<Event>();
+	private int next = 0;
+	private LongArray stepTicks = new LongArray();
+	private FloatArray steps = new FloatArray();
+	private int nextStep = 0;
+	private String map;
+	private long seed;
+	private boolean seeded = false;
+	
+	/**
+	 * Reads a script.
+	 * 
+	 * @param text
+	 * @return the script.
+	 * @throws GdxRuntimeException if a line can't be read, or events aren't in tick order.
+	 */
+	public static InputScript parse (String text) {
+		InputScript script = new InputScript();
+		String[] lines = text.split("\n");
+		
+		for (int i = 0 ; i < lines.length ; i++) {
+			String line = lines[i].trim();
+			
+			if (line.length() == 0 || line.startsWith("#")) continue;
+			
+			try {
+				String[] tokens = line.split("\\s+");
+				
+				if (tokens[0].equals("map")) 
+					script.map = tokens[1];
+				
+				else if (tokens[0].equals("seed")) 
+					script.setSeed(Long.parseLong(tokens[1]));
+				
+				else if (tokens[1].equals("step")) 
+					script.addStep(Long.parseLong(tokens[0]), Float.parseFloat(tokens[2]));
+				
+				else
+					script.add(parseEvent(tokens));
+			} catch (RuntimeException e) {
+				throw new GdxRuntimeException("Invalid input script, line " + (i + 1) + ": " + line, e);
+			}
+		}
+		
+		return script;
+	}
+	
+	/**
+	 * Feeds the processor all events of the given tick. Ticks must be asked in ascending order, and events of skipped ticks are
+	 * fed as well.
+	 * 
+	 * @param tick
+	 * @param processor
+	 */
+	public void replay (long tick, InputProcessor processor) {
+		while (next < events.size && events.get(next).tick <= tick) {
+			Event event = events.get(next++);
+			
+			switch (event.type) {
+			case KEY_DOWN:
+				processor.keyDown(event.keycode);
+				break;
+				
+			case KEY_UP:
+				processor.keyUp(event.keycode);
+				break;
+				
+			case TOUCH_DOWN:
+				processor.touchDown(event.x, event.y, event.pointer, Input.Buttons.LEFT);
+				break;
+				
+			case TOUCH_UP:
+				processor.touchUp(event.x, event.y, event.pointer, Input.Buttons.LEFT);
+				break;
+				
+			case TOUCH_DRAGGED:
+				processor.touchDragged(event.x, event.y, event.pointer);
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * @param tick
+	 * @param fallback the step to use if the script has none.
+	 * @return how long the given tick lasted when the script was recorded. Ticks must be asked in ascending order.
+	 */
+	public float getStep (long tick, float fallback) {
+		while (nextStep < stepTicks.size && stepTicks.get(nextStep) <= tick)
+			nextStep++;
+		
+		return nextStep > 0 ? steps.get(nextStep - 1) : fallback;
+	}
+	
+	/**
+	 * @return whether the script holds the length of its ticks.
+	 */
+	public boolean hasSteps () {
+		return steps.size > 0;
+	}
+	
+	/**
+	 * @return the map the script was recorded on, or null if it doesn't say.
+	 */
+	public String getMap () {
+		return map;
+	}
+	
+	/**
+	 * @return whether the script holds a seed.
+	 */
+	public boolean isSeeded () {
+		return seeded;
+	}
+	
+	public long getSeed () {
+		return seed;
+	}
+	
+	/**
+	 * Starts the script over.
+	 */
+	public void rewind () {
+		next = 0;
+		nextStep = 0;
+	}
+	
+	/**
+	 * @return the number of events.
+	 */
+	public int size () {
+		return events.size;
+	}
+	
+	/**
+	 * @return the tick of the last event or step, -1 if there's none.
+	 */
+	public long getLastTick () {
+		return Math.max(events.size > 0 ? events.peek().tick : -1, stepTicks.size > 0 ? stepTicks.peek() : -1);
+	}
+	
+	private void setSeed (long seed) {
+		this.seed = seed;
+		seeded = true;
+	}
+	
+	private void addStep (long tick, float step) {
+		if (stepTicks.size > 0 && tick < stepTicks.peek())
+			throw new GdxRuntimeException("Steps must be in tick order.");
+		
+		stepTicks.add(tick);
+		steps.add(step);
+	}
+	
+	private void add (Event event) {
+		if (events.size > 0 && event.tick < events.peek().tick)
+			throw new GdxRuntimeException("Events must be in tick order.");
+		
+		events.add(event);
+	}
+	
+	private static Event parseEvent (String[] tokens) {
+		Event event = new Event();
+		event.tick = Long.parseLong(tokens[0]);
+		String name = tokens[1];
+		
+		if (name.equals("keyDown") || name.equals("keyUp")) {
+			event.type = name.equals("keyDown") ? Type.KEY_DOWN : Type.KEY_UP;
+			event.keycode = Input.Keys.valueOf(tokens[2]);
+			
+			if (event.keycode == -1) throw new GdxRuntimeException("Unknown key: " + tokens[2]);
+		}
+		
+		else {
+			if (name.equals("touchDown")) event.type = Type.TOUCH_DOWN;
+			else if (name.equals("touchUp")) event.type = Type.TOUCH_UP;
+			else if (name.equals("touchDragged")) event.type = Type.TOUCH_DRAGGED;
+			else throw new GdxRuntimeException("Unknown event: " + name);
+			
+			event.x = Integer.parseInt(tokens[2]);
+			event.y = Integer.parseInt(tokens[3]);
+			event.pointer = tokens.length > 4 ? Integer.parseInt(tokens[4]) : 0;
+		}
+		
+		return event;
+	}
+}
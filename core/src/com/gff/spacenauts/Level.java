@@ -1,6 +1,7 @@
 package com.gff.spacenauts;
 
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Array;
 import com.gff.spacenauts.ashley.EntityBuilder;
 import com.gff.spacenauts.ashley.Families;
 import com.gff.spacenauts.ashley.SpacenautsEngine;
@@ -21,11 +22,12 @@ import com.gff.spacenauts.screens.GameScreen;
  * What this class does instead is adding all fundamental entities that constitute the level, that is:
  * 
  *  <ul>
- *  <li>Spawners</li>
  *  <li>Obstacles</li>
  *  <li>Dialog triggers</li>
  *  </ul>
  *  
+ *  Spawners aren't entities: they're run by a {@link com.gff.spacenauts.ashley.systems.SpawnSystem SpawnSystem}, see {@link #getSpawners()}.
+ *  
  *  It also stores a targetHeight value used to tell {@link com.gff.spacenauts.ashley.systems.CameraSystem CameraSystem} when to stop moving (vertical scrolling).
  * 
  * @author Alessio Cali'
@@ -57,10 +59,6 @@ public class Level {
 		SpacenautsEngine engine = GameScreen.getEngine();
 		EntityBuilder builder = GameScreen.getBuilder();
 		
-		for (SpawnerData spawner : data.enemies){
-			engine.addEntity(builder.buildSpawner(spawner));
-		}
-		
 		for (float[] obstacleVertices : data.obstacles){
 			Body obstacleBody = engine.createComponent(Body.class);
 			Hittable hittable = engine.createComponent(Hittable.class);
@@ -93,6 +91,13 @@ public class Level {
 		return targetHeight;
 	}
 	
+	/**
+	 * @return the level's spawners, as loaded.
+	 */
+	public Array<SpawnerData> getSpawners(){
+		return data.enemies;
+	}
+	
 	public float getLevelWidth(){
 		return data.levelWidth;
 	}
@@ -104,4 +109,8 @@ public class Level {
 	public String getBGM() {
 		return data.bgm;
 	}
+	
+	public String getBroadPhase() {
+		return data.broadPhase;
+	}
 }
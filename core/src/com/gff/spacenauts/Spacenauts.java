@@ -4,6 +4,12 @@ import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.utils.Pools;
+import com.gff.spacenauts.ashley.CountingPool;
+import com.gff.spacenauts.ashley.FrameProfiler;
+import com.gff.spacenauts.ashley.SteeringMechanism;
+import com.gff.spacenauts.ashley.collision.ParallelRunner;
+import com.gff.spacenauts.data.GunData;
 import com.gff.spacenauts.net.NetworkAdapter;
 import com.gff.spacenauts.screens.InitialScreen;
 import com.gff.spacenauts.screens.LoadingScreen;
@@ -19,17 +25,35 @@ import com.gff.spacenauts.screens.LoadingScreen;
 public class Spacenauts extends Game {
 	
 	private static NetworkAdapter na;
+	private static ParallelRunner runner;
+	private static FrameProfiler profiler = new FrameProfiler();
+	private static InputRecorder recorder;
+	
+	static {
+		//The most used Pools, counted by the profiler.
+		Pools.set(GunData.class, new CountingPool<GunData>(GunData.class, profiler));
+		Pools.set(SteeringMechanism.class, new CountingPool<SteeringMechanism>(SteeringMechanism.class, profiler));
+	}
 	
 	public Spacenauts () {
 		this(null);
 	}
 	
 	public Spacenauts (NetworkAdapter na) {
+		this(na, null);
+	}
+	
+	/**
+	 * @param na the network adapter, null if multiplayer is not available.
+	 * @param runner a runner to split parallel work with, like the collision narrow phase, null if the backend has no threads to spare.
+	 */
+	public Spacenauts (NetworkAdapter na, ParallelRunner runner) {
 		Spacenauts.na = na;
+		Spacenauts.runner = runner;
 		if (na != null) na.reset();
 	}
 	
-	private void initPrefs () {
+	protected void initPrefs () {
 		Preferences pref = Gdx.app.getPreferences(Globals.PREF_FILE);
 		
 		Globals.nickname = pref.getString("nickname", "Spacenaut");
@@ -40,6 +64,10 @@ public class Spacenauts extends Game {
 		Globals.debug = pref.getBoolean("debug", false);
 		Globals.godmode = pref.getBoolean("godmode", false);
 		Globals.levelUnlocked = pref.getInteger("levelUnlocked", 1);
+		Globals.broadPhase = pref.getString("broadPhase", "rebuild");
+		Globals.physicsStep = pref.getFloat("physicsStep", 0.01f);
+		Globals.parallelCollisions = pref.getBoolean("parallelCollisions", false);
+		Globals.batchedMovement = pref.getBoolean("batchedMovement", false);
 	}
 	
 	@Override
@@ -61,10 +89,33 @@ public class Spacenauts extends Game {
 	public void dispose() {
 		super.dispose();
 		if (Spacenauts.na != null) Spacenauts.na.reset();
+		if (Spacenauts.runner != null) Spacenauts.runner.dispose();
 	}
 	
 	
 	public static NetworkAdapter getNetworkAdapter() {
 		return na;
 	}
+	
+	public static ParallelRunner getParallelRunner() {
+		return runner;
+	}
+	
+	/**
+	 * @return the profiler all engines report their frame times to. It lasts as long as the game, across levels.
+	 */
+	public static FrameProfiler getProfiler() {
+		return profiler;
+	}
+	
+	/**
+	 * @return the recorder single player levels are recorded with, null if they aren't.
+	 */
+	public static InputRecorder getRecorder() {
+		return recorder;
+	}
+	
+	public static void setRecorder(InputRecorder recorder) {
+		Spacenauts.recorder = recorder;
+	}
 }
@@ -13,7 +13,7 @@ import com.gff.spacenauts.ashley.components.FSMAI;
 import com.gff.spacenauts.ashley.components.Gun;
 import com.gff.spacenauts.ashley.components.Hittable;
 import com.gff.spacenauts.ashley.components.Position;
-import com.gff.spacenauts.ashley.components.Timers;
+import com.gff.spacenauts.ashley.systems.TimerSystem;
 import com.gff.spacenauts.data.GunData;
 import com.gff.spacenauts.data.SpawnerData;
 import com.gff.spacenauts.listeners.TimerListener.TimerType;
@@ -102,15 +102,10 @@ public class FirstLineAI extends DefaultStateMachine<Entity> {
 		ATTACK_70_40 {
 			@Override
 			public void enter (Entity entity) {
-				Timers timers = Mappers.tm.get(entity);
+				TimerSystem timers = GameScreen.getEngine().getSystem(TimerSystem.class);
 				Position pos = Mappers.pm.get(entity);
 				Vector2 actualPos = pos != null ? pos.value : new Vector2(0,0);	//Are all these null checks necessary?
 				
-				if (timers == null) {
-					timers = GameScreen.getEngine().createComponent(Timers.class);
-					entity.add(timers);
-				}
-				
 				SpawnerData[] minions = new SpawnerData[2];
 				
 				for (int i = 0 ; i < minions.length ; i++) {
@@ -121,7 +116,7 @@ public class FirstLineAI extends DefaultStateMachine<Entity> {
 				minions[1].initialPosition.add(4, -3);
 			
 				for (SpawnerData data : minions)
-					timers.listeners.add(new Spawn(data));
+					timers.schedule(entity, new Spawn(data));
 			}
 			
 			@Override
@@ -141,18 +136,13 @@ public class FirstLineAI extends DefaultStateMachine<Entity> {
 		ATTACK_40_30 {
 			@Override
 			public void enter (Entity entity) {
-				Timers timers = Mappers.tm.get(entity);
+				TimerSystem timers = GameScreen.getEngine().getSystem(TimerSystem.class);
 				Position pos = Mappers.pm.get(entity);
 				Vector2 actualPos = pos != null ? pos.value : new Vector2(0,0);
 				
-				if (timers == null) {
-					timers = GameScreen.getEngine().createComponent(Timers.class);
-					entity.add(timers);
-				}
-				
 				SpawnerData minion = getMinion(actualPos);
 				minion.initialPosition.add(-1, -3);
-				timers.listeners.add(new Spawn(minion));
+				timers.schedule(entity, new Spawn(minion));
 			}
 			
 			@Override
@@ -205,18 +195,13 @@ public class FirstLineAI extends DefaultStateMachine<Entity> {
 					gun.guns.addAll(GameScreen.getBuilder().buildGunDataFL30To0());
 				}
 				
-				Timers timers = Mappers.tm.get(entity);
+				TimerSystem timers = GameScreen.getEngine().getSystem(TimerSystem.class);
 				Position pos = Mappers.pm.get(entity);
 				Vector2 actualPos = pos != null ? pos.value : new Vector2(0,0);
 				
-				if (timers == null) {
-					timers = GameScreen.getEngine().createComponent(Timers.class);
-					entity.add(timers);
-				}
-				
 				SpawnerData minion = getMinion(actualPos);
 				minion.initialPosition.add(-2, -5);
-				timers.listeners.add(new Spawn(minion));
+				timers.schedule(entity, new Spawn(minion));
 			}
 			
 			@Override
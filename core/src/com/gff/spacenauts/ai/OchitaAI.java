@@ -385,6 +385,7 @@ public class OchitaAI extends DefaultStateMachine<Entity> {
 				for (GunData data : gun.guns) {
 					data.bulletImage = GameScreen.getBuilder().getSpriteCache().get("bullet_red");
 					data.bulletDamage = 30;
+					data.invalidateArchetype();
 				}
 
 				fsm.removeShield();
@@ -0,0 +1,17 @@
+package com.gff.spacenauts.ashley;
+
+/**
+ * Tells how much memory the calling thread has allocated so far, for the {@link FrameProfiler} to report allocations per frame.
+ * Only backends whose VM can measure it provide one.
+ * 
+ * @author Alessio Cali'
+ *
+ */
+public interface AllocationProbe {
+
+	/**
+	 * @return the bytes allocated by the calling thread since it started, plus those allocated by any threads working on its behalf,
+	 * like a {@link com.gff.spacenauts.ashley.collision.ParallelRunner ParallelRunner}'s. Only differences between two calls are meaningful.
+	 */
+	public long getAllocatedBytes();
+}
@@ -0,0 +1,99 @@
+package com.gff.spacenauts.ashley;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.gff.spacenauts.ashley.components.Angle;
+import com.gff.spacenauts.ashley.components.Bullet;
+import com.gff.spacenauts.ashley.components.CollisionDamage;
+import com.gff.spacenauts.ashley.components.Death;
+import com.gff.spacenauts.ashley.components.Enemy;
+import com.gff.spacenauts.ashley.components.Friendly;
+import com.gff.spacenauts.ashley.components.Hittable;
+import com.gff.spacenauts.ashley.components.Position;
+import com.gff.spacenauts.ashley.components.Removable;
+import com.gff.spacenauts.ashley.components.Render;
+import com.gff.spacenauts.ashley.components.Velocity;
+import com.gff.spacenauts.data.GunData;
+import com.gff.spacenauts.listeners.death.DeathListeners;
+import com.gff.spacenauts.listeners.hit.HitListeners;
+
+/**
+ * <p>
+ * Everything bullets shot by the same {@link GunData} have in common, computed once: the damage, the sprite and its scale,
+ * and the hit and death listeners. Listeners are copied into lists of the archetype's own, which all its bullets share
+ * instead of copying them again, so the archetype stays valid even after the GunData is freed.
+ * </p>
+ *
+ * <p>
+ * Each bullet is made of the components in {@link #COMPONENTS}, plus a {@link Friendly} or {@link Enemy} tag. Bullets fly straight,
+ * so they get no {@link com.gff.spacenauts.ashley.components.AngularVelocity AngularVelocity}.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class BulletArchetype {
+
+	/**
+	 * The components every bullet is made of, its side aside.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static final Class<? extends Component>[] COMPONENTS = new Class[] {
+		Position.class, Angle.class, Velocity.class, CollisionDamage.class, Hittable.class, Death.class, Render.class, Bullet.class, Removable.class
+	};
+
+	private final float damage;
+	private final Sprite sprite;
+	private final float scaleX, scaleY;
+	private final HitListeners hitListeners = new HitListeners();
+	private final DeathListeners deathListeners = new DeathListeners();
+
+	public BulletArchetype(GunData data) {
+		damage = data.bulletDamage;
+		sprite = data.bulletImage;
+		scaleX = data.scaleX;
+		scaleY = data.scaleY;
+		hitListeners.addAll(data.bulletHitListeners.getListeners());
+		deathListeners.addAll(data.bulletDeathListeners.getListeners());
+	}
+
+	/**
+	 * Builds a new bullet. Its position, angle and velocity are zero: it's up to the caller to set them and add the bullet to the engine.
+	 *
+	 * @param engine
+	 * @param friendly whether the bullet is friendly.
+	 * @param enemy whether the bullet is an enemy. Ignored if the bullet is friendly.
+	 * @return the new bullet.
+	 */
+	public Entity stamp(SpacenautsEngine engine, boolean friendly, boolean enemy) {
+		Entity bullet = engine.createEntity();
+
+		CollisionDamage cd = engine.createComponent(CollisionDamage.class);
+		Hittable hit = engine.createComponent(Hittable.class);
+		Death death = engine.createComponent(Death.class);
+		Render render = engine.createComponent(Render.class);
+
+		cd.damageDealt = damage;
+		hit.shareListeners(hitListeners);
+		death.shareListeners(deathListeners);
+		render.sprite = sprite;
+		render.scaleX = scaleX;
+		render.scaleY = scaleY;
+
+		bullet.add(engine.createComponent(Position.class))
+			  .add(engine.createComponent(Angle.class))
+			  .add(engine.createComponent(Velocity.class))
+			  .add(cd).add(hit).add(death).add(render)
+			  .add(engine.createComponent(Bullet.class))
+			  .add(engine.createComponent(Removable.class));
+
+		if (friendly)
+			bullet.add(engine.createComponent(Friendly.class));
+
+		else if (enemy)
+			bullet.add(engine.createComponent(Enemy.class));
+
+		return bullet;
+	}
+}
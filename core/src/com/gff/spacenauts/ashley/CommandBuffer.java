@@ -0,0 +1,177 @@
+package com.gff.spacenauts.ashley;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * <p>
+ * Records entity additions and removals, and component additions and removals, to apply them later all at once
+ * through {@link #flush(Engine)}. {@link SpacenautsEngine} flushes its buffer at the end of each update, so that family
+ * memberships and entity listeners are updated once per frame, in a known place, instead of after each system.
+ * </p>
+ *
+ * <p>
+ * Commands are applied in the order they were recorded. An entity removed more than once per frame is only removed the first time,
+ * so listeners that may fire twice for the same entity, like death listeners, don't need to check it themselves.
+ * </p>
+ *
+ * <p>
+ * Each command remembers the id the entity had when it was recorded. If the entity has left the engine by the time
+ * the buffer is flushed, for example because some other code removed it directly, the command is dropped: a pooled entity
+ * might otherwise be removed twice, or hit while it's being reused.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class CommandBuffer {
+
+	private enum Type {
+		ADD_ENTITY, REMOVE_ENTITY, ADD_COMPONENT, REMOVE_COMPONENT
+	}
+
+	private static class Command implements Poolable {
+		private Type type;
+		private Entity entity;
+		private long entityId;
+		private Component component;
+		private Class<? extends Component> componentClass;
+
+		@Override
+		public void reset() {
+			type = null;
+			entity = null;
+			entityId = 0;
+			component = null;
+			componentClass = null;
+		}
+	}
+
+	private Array<Command> commands = new Array<Command>();
+	private ObjectSet<Entity> removals = new ObjectSet<Entity>();
+	private Pool<Command> pool = new Pool<Command>() {
+		@Override
+		protected Command newObject() {
+			return new Command();
+		}
+	};
+
+	private int lastFlushCommands = 0;
+	private int peakFlushCommands = 0;
+
+	public void addEntity(Entity entity) {
+		record(Type.ADD_ENTITY, entity, null, null);
+	}
+
+	/**
+	 * Records the entity's removal, unless it's already been recorded since the last flush.
+	 *
+	 * @param entity
+	 */
+	public void removeEntity(Entity entity) {
+		if (removals.add(entity))
+			record(Type.REMOVE_ENTITY, entity, null, null);
+	}
+
+	public void addComponent(Entity entity, Component component) {
+		record(Type.ADD_COMPONENT, entity, component, null);
+	}
+
+	public void removeComponent(Entity entity, Class<? extends Component> componentClass) {
+		record(Type.REMOVE_COMPONENT, entity, null, componentClass);
+	}
+
+	/**
+	 * Applies all recorded commands to the given engine, then empties the buffer.
+	 *
+	 * @param engine
+	 */
+	public void flush(Engine engine) {
+		//Commands recorded while flushing are applied in the same flush.
+		for (int i = 0 ; i < commands.size ; i++) {
+			Command command = commands.get(i);
+
+			if (command.type != Type.ADD_ENTITY && !isCurrent(engine, command)) continue;
+
+			switch (command.type) {
+			case ADD_ENTITY:
+				engine.addEntity(command.entity);
+				break;
+
+			case REMOVE_ENTITY:
+				engine.removeEntity(command.entity);
+				break;
+
+			case ADD_COMPONENT:
+				command.entity.add(command.component);
+				break;
+
+			case REMOVE_COMPONENT:
+				command.entity.remove(command.componentClass);
+				break;
+			}
+		}
+
+		lastFlushCommands = commands.size;
+		peakFlushCommands = Math.max(peakFlushCommands, lastFlushCommands);
+		clear();
+	}
+
+	/**
+	 * Drops all recorded commands without applying them.
+	 */
+	public void clear() {
+		pool.freeAll(commands);
+		commands.clear();
+		removals.clear();
+	}
+
+	/**
+	 * @return the number of commands waiting for the next flush.
+	 */
+	public int size() {
+		return commands.size;
+	}
+
+	/**
+	 * @return the number of commands applied by the last flush.
+	 */
+	public int getLastFlushCommands() {
+		return lastFlushCommands;
+	}
+
+	/**
+	 * @return the highest number of commands applied by a single flush.
+	 */
+	public int getPeakFlushCommands() {
+		return peakFlushCommands;
+	}
+
+	/**
+	 * @return whether the command's entity is still the one it was recorded for. Entities that weren't in the engine when the command
+	 * was recorded are current if they're in the engine now, or if the command only touches their components.
+	 */
+	private boolean isCurrent(Engine engine, Command command) {
+		long id = command.entityId != 0 ? command.entityId : command.entity.getId();
+
+		if (id == 0)
+			return command.type != Type.REMOVE_ENTITY;
+
+		return engine.getEntity(id) == command.entity;
+	}
+
+	private void record(Type type, Entity entity, Component component, Class<? extends Component> componentClass) {
+		Command command = pool.obtain();
+		command.type = type;
+		command.entity = entity;
+		command.entityId = entity.getId();
+		command.component = component;
+		command.componentClass = componentClass;
+		commands.add(command);
+	}
+}
@@ -0,0 +1,86 @@
+package com.gff.spacenauts.ashley;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ReflectionPool;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+
+/**
+ * A {@link ReflectionPool} that reports to a {@link FrameProfiler} how many objects it hands out each frame, and how many of them
+ * it had to create because none was free. Steady misses mean the pool is too small for the game, or objects aren't freed.
+ * Nothing is counted while the profiler is disabled.<br>
+ * The pool also keeps the most objects that were in use at once, whether profiling or not, so that it can be {@link #prewarm(int) filled} 
+ * up front the next time. See {@link PoolProfile}.
+ * 
+ * @author Alessio Cali'
+ *
+ * @param <T>
+ */
+public class CountingPool<T> extends ReflectionPool<T> {
+
+	private final FrameProfiler profiler;
+	private final String obtainedKey;
+	private final String missedKey;
+	private int live = 0;
+	private int highWaterMark = 0;
+
+	public CountingPool(Class<T> type, FrameProfiler profiler) {
+		super(type);
+		this.profiler = profiler;
+		obtainedKey = "Pool/" + ClassReflection.getSimpleName(type) + " obtained";
+		missedKey = "Pool/" + ClassReflection.getSimpleName(type) + " missed";
+	}
+
+	@Override
+	public T obtain() {
+		if (profiler.isEnabled())
+			profiler.count(obtainedKey, 1);
+
+		live++;
+		highWaterMark = Math.max(highWaterMark, live);
+		return super.obtain();
+	}
+
+	@Override
+	public void free(T object) {
+		super.free(object);
+		live--;
+	}
+
+	@Override
+	public void freeAll(Array<T> objects) {
+		super.freeAll(objects);
+		live -= objects.size;
+	}
+
+	/**
+	 * Creates free objects until the pool holds at least the given number, counting those in use.
+	 * 
+	 * @param size
+	 */
+	public void prewarm(int size) {
+		for (int i = live + getFree() ; i < size && getFree() < max ; i++)
+			super.free(super.newObject());
+	}
+
+	/**
+	 * @return the most objects in use at once since the last {@link #resetHighWaterMark()}.
+	 */
+	public int getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * Starts measuring the high-water mark over, from the objects in use now.
+	 */
+	public void resetHighWaterMark() {
+		highWaterMark = live;
+	}
+
+	@Override
+	protected T newObject() {
+		if (profiler.isEnabled())
+			profiler.count(missedKey, 1);
+
+		return super.newObject();
+	}
+}
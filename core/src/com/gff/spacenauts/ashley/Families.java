@@ -44,7 +44,7 @@ public final class Families {
 	public static final Family COLLIDERS_FAMILY = Family.all(Hittable.class).one(Body.class, Position.class).get();
 	public static final Family DIALOG_FAMILY = Family.all(DialogTrigger.class).get();
 	public static final Family IMMUNE_FAMILY = Family.all(Immunity.class).get();
-	public static final Family MOVEMENT_FAMILY = Family.all(Position.class, Velocity.class, Angle.class, AngularVelocity.class).get();
+	public static final Family MOVEMENT_FAMILY = Family.all(Position.class, Velocity.class, Angle.class).get();
 	public static final Family REMOVABLE_FAMILY = Family.all(Position.class, Removable.class).get();
 	public static final Family RENDERING_FAMILY = Family.one(Body.class, Render.class).get();
 	public static final Family SPRITE_FAMILY = Family.all(Render.class, Position.class, Angle.class).get();
@@ -53,5 +53,6 @@ public final class Families {
 	public static final Family STEERING_FAMILY = Family.all(Steering.class, Velocity.class, Angle.class, AngularVelocity.class).get();
 	public static final Family BOSS_FAMILY = Family.all(Boss.class).get();
 	public static final Family TIMER_FAMILY = Family.all(Timers.class).get();
+	public static final Family ANIMATION_FAMILY = Family.all(Render.class).get();
 	
 }
@@ -0,0 +1,366 @@
+package com.gff.spacenauts.ashley;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.gff.spacenauts.Globals;
+
+/**
+ * <p>
+ * Collects how long each part of a frame takes, in nanoseconds, how many bytes it allocates and how many times it does something
+ * worth counting, like obtaining an object from a pool. Parts are keyed by any object: systems use their class,
+ * their inner steps a string. Times added to the same part during a frame are summed, so a system running several steps per frame
+ * is measured as a whole.
+ * </p>
+ *
+ * <p>
+ * Allocations are only measured when the backend provides an {@link AllocationProbe}, for the thread the part runs on and the
+ * {@link com.gff.spacenauts.ashley.collision.ParallelRunner ParallelRunner} threads it waits on, if the probe counts them.
+ * Besides systems and physics steps, the spots known to allocate report their own parts through a {@link LapTimer},
+ * named after their class and what they do, like "CollisionSystem/narrow phase" or "ReleaseAnimation/fade animation".
+ * </p>
+ *
+ * <p>
+ * Each part keeps its last {@link #WINDOW} frames, over which the average, 99th percentile and maximum time are computed, along with
+ * the highest time ever measured, and the average and maximum bytes and counts. Every {@link #WINDOW} frames the {@link Listener}, if any, is notified, for example to dump the
+ * figures to a file.
+ * </p>
+ *
+ * <p>
+ * The profiler is active in debug mode and whenever it has a listener. {@link SpacenautsEngine} then times each system on its own.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class FrameProfiler {
+
+	public static final int WINDOW = 120;
+
+	/**
+	 * The key of the whole frame's time.
+	 */
+	public static final String FRAME = "Frame";
+
+	/**
+	 * Notified once per window.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	public interface Listener {
+
+		public void onWindow(FrameProfiler profiler);
+	}
+
+	/**
+	 * The figures of a single part of the frame.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	public static class Entry {
+
+		private final String name;
+		private long[] samples = new long[WINDOW];
+		private long[] byteSamples = new long[WINDOW];
+		private long[] countSamples = new long[WINDOW];
+		private int size = 0;
+		private int next = 0;
+		private long current = 0;
+		private long currentBytes = 0;
+		private long currentCount = 0;
+		private long sessionMax = 0;
+
+		private Entry(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the time measured during the last frame.
+		 */
+		public long getLast() {
+			return size == 0 ? 0 : samples[(next + WINDOW - 1) % WINDOW];
+		}
+
+		public long getAverage() {
+			return average(samples);
+		}
+
+		public long getMax() {
+			return max(samples);
+		}
+
+		/**
+		 * @param buffer an array of at least {@link FrameProfiler#WINDOW} elements to sort the samples in.
+		 * @return the time 99% of the window's frames didn't exceed.
+		 */
+		private long getP99(long[] buffer) {
+			if (size == 0) return 0;
+
+			System.arraycopy(samples, 0, buffer, 0, size);
+			Arrays.sort(buffer, 0, size);
+
+			return buffer[(int)Math.ceil(size * 0.99) - 1];
+		}
+
+		/**
+		 * @return the highest time ever measured.
+		 */
+		public long getSessionMax() {
+			return sessionMax;
+		}
+
+		/**
+		 * @return the bytes allocated during the last frame.
+		 */
+		public long getLastBytes() {
+			return size == 0 ? 0 : byteSamples[(next + WINDOW - 1) % WINDOW];
+		}
+
+		/**
+		 * @return the bytes allocated per frame, on average.
+		 */
+		public long getAverageBytes() {
+			return average(byteSamples);
+		}
+
+		public long getMaxBytes() {
+			return max(byteSamples);
+		}
+
+		/**
+		 * @return the count per frame, on average.
+		 */
+		public long getAverageCount() {
+			return average(countSamples);
+		}
+
+		public long getMaxCount() {
+			return max(countSamples);
+		}
+
+		private long average(long[] window) {
+			if (size == 0) return 0;
+
+			long total = 0;
+
+			for (int i = 0 ; i < size ; i++)
+				total += window[i];
+
+			return total / size;
+		}
+
+		private long max(long[] window) {
+			long max = 0;
+
+			for (int i = 0 ; i < size ; i++)
+				max = Math.max(max, window[i]);
+
+			return max;
+		}
+
+		private void push() {
+			samples[next] = current;
+			byteSamples[next] = currentBytes;
+			countSamples[next] = currentCount;
+			next = (next + 1) % WINDOW;
+			size = Math.min(size + 1, WINDOW);
+			sessionMax = Math.max(sessionMax, current);
+			current = 0;
+			currentBytes = 0;
+			currentCount = 0;
+		}
+	}
+
+	/**
+	 * Splits a stretch of code into consecutive parts of the frame, like the phases of a system: each {@link #lap(Object)} adds the
+	 * time and bytes since the previous one to the given part. Does nothing while the profiler is disabled.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	public static class LapTimer {
+
+		private final FrameProfiler profiler;
+		private boolean enabled = false;
+		private long time, bytes;
+
+		public LapTimer(FrameProfiler profiler) {
+			this.profiler = profiler;
+		}
+
+		/**
+		 * Starts measuring the first part.
+		 */
+		public void start() {
+			enabled = profiler.isEnabled();
+
+			if (enabled) {
+				time = TimeUtils.nanoTime();
+				bytes = profiler.getAllocatedBytes();
+			}
+		}
+
+		/**
+		 * Closes the current part and starts the next one.
+		 *
+		 * @param key the part just closed, as in {@link FrameProfiler#add(Object, long)}.
+		 */
+		public void lap(Object key) {
+			if (!enabled) return;
+
+			long now = TimeUtils.nanoTime();
+			long nowBytes = profiler.getAllocatedBytes();
+			profiler.add(key, now - time, nowBytes - bytes);
+			time = now;
+			bytes = nowBytes;
+		}
+	}
+
+	private Array<Entry> entries = new Array<Entry>();
+	private ObjectMap<Object, Entry> entriesByKey = new ObjectMap<Object, Entry>();
+	private long[] sortBuffer = new long[WINDOW];
+	private long frames = 0;
+	private Listener listener;
+	private AllocationProbe probe;
+
+	/**
+	 * @return whether times should be measured at all.
+	 */
+	public boolean isEnabled() {
+		return Globals.debug || listener != null;
+	}
+
+	/**
+	 * Adds some time to a part of the current frame.
+	 *
+	 * @param key the part. Classes are named after their simple name, anything else after its string form.
+	 * @param nanos
+	 */
+	public void add(Object key, long nanos) {
+		getOrCreate(key).current += nanos;
+	}
+
+	/**
+	 * Adds some time and allocated bytes to a part of the current frame.
+	 *
+	 * @param key the part, as in {@link #add(Object, long)}.
+	 * @param nanos
+	 * @param bytes as measured through {@link #getAllocatedBytes()}.
+	 */
+	public void add(Object key, long nanos, long bytes) {
+		Entry entry = getOrCreate(key);
+		entry.current += nanos;
+		entry.currentBytes += bytes;
+	}
+
+	/**
+	 * Counts something happening during the current frame.
+	 *
+	 * @param key the part, as in {@link #add(Object, long)}.
+	 * @param count
+	 */
+	public void count(Object key, int count) {
+		getOrCreate(key).currentCount += count;
+	}
+
+	/**
+	 * @return the bytes the calling thread has allocated so far, or zero if there's no {@link AllocationProbe}.
+	 */
+	public long getAllocatedBytes() {
+		return probe != null ? probe.getAllocatedBytes() : 0;
+	}
+
+	/**
+	 * @return whether allocations are measured at all.
+	 */
+	public boolean isMeasuringAllocations() {
+		return probe != null;
+	}
+
+	/**
+	 * @param budget the bytes per frame the game may allocate once it's warmed up.
+	 * @return whether the whole frame allocated more than the budget on average over the last window. Always false
+	 * if allocations aren't measured.
+	 */
+	public boolean exceedsAllocationBudget(long budget) {
+		Entry frame = entriesByKey.get(FRAME);
+		return probe != null && frame != null && frame.getAverageBytes() > budget;
+	}
+
+	/**
+	 * Closes the current frame. Parts that weren't measured count as zero.
+	 */
+	public void endFrame() {
+		for (int i = 0 ; i < entries.size ; i++)
+			entries.get(i).push();
+
+		frames++;
+
+		if (listener != null && frames % WINDOW == 0)
+			listener.onWindow(this);
+	}
+
+	/**
+	 * @return all parts measured so far, in the order they were first seen.
+	 */
+	public Array<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @param entry
+	 * @return the time 99% of the entry's last frames didn't exceed.
+	 */
+	public long getP99(Entry entry) {
+		return entry.getP99(sortBuffer);
+	}
+
+	/**
+	 * @param key
+	 * @return the entry of the given part, or null if it was never measured.
+	 */
+	public Entry getEntry(Object key) {
+		return entriesByKey.get(key);
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+
+	public Listener getListener() {
+		return listener;
+	}
+
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	public AllocationProbe getAllocationProbe() {
+		return probe;
+	}
+
+	public void setAllocationProbe(AllocationProbe probe) {
+		this.probe = probe;
+	}
+
+	private Entry getOrCreate(Object key) {
+		Entry entry = entriesByKey.get(key);
+
+		if (entry == null) {
+			entry = new Entry(key instanceof Class ? ClassReflection.getSimpleName((Class<?>)key) : key.toString());
+			entries.add(entry);
+			entriesByKey.put(key, entry);
+		}
+
+		return entry;
+	}
+}
@@ -0,0 +1,231 @@
+package com.gff.spacenauts.ashley;
+
+import java.util.Comparator;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectIntMap.Entry;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.Logger;
+import com.gff.spacenauts.Logger.LogLevel;
+import com.gff.spacenauts.ashley.components.Angle;
+import com.gff.spacenauts.ashley.components.AngularVelocity;
+import com.gff.spacenauts.ashley.components.Body;
+import com.gff.spacenauts.ashley.components.CollisionDamage;
+import com.gff.spacenauts.ashley.components.Death;
+import com.gff.spacenauts.ashley.components.Enemy;
+import com.gff.spacenauts.ashley.components.FSMAI;
+import com.gff.spacenauts.ashley.components.Gun;
+import com.gff.spacenauts.ashley.components.Hittable;
+import com.gff.spacenauts.ashley.components.Position;
+import com.gff.spacenauts.ashley.components.Removable;
+import com.gff.spacenauts.ashley.components.Render;
+import com.gff.spacenauts.ashley.components.Velocity;
+import com.gff.spacenauts.data.LevelData;
+import com.gff.spacenauts.data.SpawnerData;
+import com.gff.spacenauts.listeners.TimerListener.TimerType;
+
+/**
+ * <p>
+ * How many pooled objects a level needs at once: entities, components of each class, {@link com.gff.spacenauts.data.GunData GunData}
+ * and {@link SteeringMechanism}s. The {@link com.gff.spacenauts.screens.GameScreen GameScreen} sizes the engine's pools after it and fills them
+ * before the level starts, so that pools don't grow in the middle of a fight.
+ * </p>
+ *
+ * <p>
+ * The first time a level is played its needs are {@link #estimate(LevelData) estimated} from its spawners. The high-water marks
+ * measured while playing are then {@link #save(String) saved} to a local preferences file, and {@link #load(String) loaded} the next time.
+ * Saved marks only ever grow, so that a spike seen once stays covered.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class PoolProfile {
+
+	public static final String PREF_FILE = "pools.ini";
+
+	private static final String TAG = "PoolProfile";
+	private static final String ENTITIES = "entities";
+	private static final String GUN_DATA = "GunData";
+	private static final String STEERING = "SteeringMechanism";
+
+	/**
+	 * Bullets each enemy is assumed to have on screen, when estimating.
+	 */
+	private static final int BULLETS_PER_ENEMY = 5;
+
+	/**
+	 * Spawners that fire forever are assumed to fire as long as the camera takes to pass them by.
+	 */
+	private static final float SPAWNER_SPAN = 2 * Globals.SPAWN_RADIUS;
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static final Class<? extends Component>[] ENEMY_COMPONENTS = new Class[] {
+		Position.class, Velocity.class, Angle.class, AngularVelocity.class, Body.class, CollisionDamage.class,
+		Hittable.class, Death.class, Enemy.class, Gun.class, Removable.class, Render.class, FSMAI.class
+	};
+
+	public int entities = 0;
+	public ObjectIntMap<Class<? extends Component>> components = new ObjectIntMap<Class<? extends Component>>();
+	public int gunData = 0;
+	public int steeringMechanisms = 0;
+
+	/**
+	 * Loads the marks saved for the given level.
+	 *
+	 * @param level the level's map file.
+	 * @return the saved profile, or null if the level was never played.
+	 */
+	public static PoolProfile load(String level) {
+		Preferences prefs = Gdx.app.getPreferences(PREF_FILE);
+
+		if (!prefs.contains(key(level, ENTITIES)))
+			return null;
+
+		PoolProfile profile = new PoolProfile();
+		String prefix = level + "/";
+
+		for (String key : prefs.get().keySet()) {
+			if (!key.startsWith(prefix)) continue;
+
+			String name = key.substring(prefix.length());
+			int value = prefs.getInteger(key, 0);
+
+			if (name.equals(ENTITIES)) profile.entities = value;
+			else if (name.equals(GUN_DATA)) profile.gunData = value;
+			else if (name.equals(STEERING)) profile.steeringMechanisms = value;
+			else {
+				try {
+					Class<?> type = ClassReflection.forName(name);
+
+					if (ClassReflection.isAssignableFrom(Component.class, type)) {
+						@SuppressWarnings("unchecked")
+						Class<? extends Component> componentType = (Class<? extends Component>)type;
+						profile.components.put(componentType, value);
+					} else
+						Logger.log(LogLevel.WARNING, TAG, "Not a component in pool profile: " + name);
+				} catch (ReflectionException e) {
+					Logger.log(LogLevel.WARNING, TAG, "Unknown component in pool profile: " + name);
+				}
+			}
+		}
+
+		return profile;
+	}
+
+	/**
+	 * Estimates a level's needs from its spawners. Only spawners close enough to the camera fire, so the estimate is the most enemies
+	 * spawned along any stretch of the level as tall as the spawning area, each with its own few bullets.
+	 *
+	 * @param data
+	 * @return the estimate.
+	 */
+	public static PoolProfile estimate(LevelData data) {
+		PoolProfile profile = new PoolProfile();
+		Array<SpawnerData> spawners = new Array<SpawnerData>(data.enemies);
+		int enemies = 0;
+		int windowEnemies = 0;
+		int first = 0;
+
+		spawners.sort(new Comparator<SpawnerData>() {
+			@Override
+			public int compare(SpawnerData s1, SpawnerData s2) {
+				return Float.compare(s1.initialPosition.y, s2.initialPosition.y);
+			}
+		});
+
+		//Slide a window of SPAWNER_SPAN over the spawners, from the bottom up.
+		for (int i = 0 ; i < spawners.size ; i++) {
+			windowEnemies += getSpawns(spawners.get(i));
+
+			while (spawners.get(i).initialPosition.y - spawners.get(first).initialPosition.y > SPAWNER_SPAN)
+				windowEnemies -= getSpawns(spawners.get(first++));
+
+			enemies = Math.max(enemies, windowEnemies);
+		}
+
+		int bullets = enemies * BULLETS_PER_ENEMY;
+
+		profile.entities = enemies + bullets;
+		profile.gunData = enemies;
+		profile.steeringMechanisms = enemies;
+
+		for (Class<? extends Component> type : ENEMY_COMPONENTS)
+			profile.components.getAndIncrement(type, 0, enemies);
+
+		//Enemy bullets, all of them.
+		for (Class<? extends Component> type : BulletArchetype.COMPONENTS)
+			profile.components.getAndIncrement(type, 0, bullets);
+
+		profile.components.getAndIncrement(Enemy.class, 0, bullets);
+
+		return profile;
+	}
+
+	/**
+	 * Saves the profile as the given level's, keeping the highest marks between this and the saved one.
+	 *
+	 * @param level the level's map file.
+	 */
+	public void save(String level) {
+		PoolProfile saved = load(level);
+
+		if (saved != null)
+			merge(saved);
+
+		Preferences prefs = Gdx.app.getPreferences(PREF_FILE);
+		prefs.putInteger(key(level, ENTITIES), entities);
+		prefs.putInteger(key(level, GUN_DATA), gunData);
+		prefs.putInteger(key(level, STEERING), steeringMechanisms);
+
+		for (Entry<Class<? extends Component>> entry : components)
+			prefs.putInteger(key(level, entry.key.getName()), entry.value);
+
+		prefs.flush();
+	}
+
+	/**
+	 * Raises this profile's marks to the other's, where they're higher.
+	 *
+	 * @param other
+	 */
+	public void merge(PoolProfile other) {
+		entities = Math.max(entities, other.entities);
+		gunData = Math.max(gunData, other.gunData);
+		steeringMechanisms = Math.max(steeringMechanisms, other.steeringMechanisms);
+
+		for (Entry<Class<? extends Component>> entry : other.components)
+			components.put(entry.key, Math.max(components.get(entry.key, 0), entry.value));
+	}
+
+	/**
+	 * @return the most components of a single class.
+	 */
+	public int getMaxComponents() {
+		int max = 0;
+
+		for (Entry<Class<? extends Component>> entry : components)
+			max = Math.max(max, entry.value);
+
+		return max;
+	}
+
+	private static int getSpawns(SpawnerData spawner) {
+		if (spawner.timerType == TimerType.ONE_SHOT || spawner.intervalTime <= 0)
+			return 1;
+
+		int spawns = (int)Math.ceil(SPAWNER_SPAN / Globals.baseCameraSpeed / spawner.intervalTime);
+
+		return spawner.timerType == TimerType.INTERVAL_LIMITED ? Math.min(spawns, spawner.limit) : spawns;
+	}
+
+	private static String key(String level, String name) {
+		return level + "/" + name;
+	}
+}
@@ -0,0 +1,134 @@
+package com.gff.spacenauts.ashley;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.ashley.utils.ImmutableArray;
+
+/**
+ * <p>
+ * Keeps a direct reference to the entities the game has at most one of, like the player or the camera.
+ * Each {@link Role} is backed by an {@link EntityListener} on its family, so the reference is updated only when such an entity
+ * is added or removed, instead of being looked up through {@link Engine#getEntitiesFor(Family)} whenever it's needed.
+ * </p>
+ *
+ * <p>
+ * If more than one entity fills the same role, the registry holds the oldest one, same as the first entry of the family's array.
+ * </p>
+ *
+ * <p>
+ * Lookups are counted: {@link #getLastFrameLookups()} tells how many family queries the registry saved during the last frame.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class SingletonRegistry {
+
+	/**
+	 * The roles the registry keeps track of.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	public enum Role {
+		PLAYER(Families.PLAYER_FAMILY),
+		COOP_PLAYER(Families.COOP_FAMILY),
+		BOSS(Families.BOSS_FAMILY),
+		CAMERA(Families.CAMERA_FAMILY);
+
+		private Family family;
+
+		private Role(Family family) {
+			this.family = family;
+		}
+
+		public Family getFamily() {
+			return family;
+		}
+	}
+
+	private Engine engine;
+	private Entity[] entities = new Entity[Role.values().length];
+	private int lookups = 0;
+	private int lastFrameLookups = 0;
+
+	public SingletonRegistry(Engine engine) {
+		this.engine = engine;
+
+		for (Role role : Role.values()) {
+			engine.addEntityListener(role.getFamily(), new RoleListener(role));
+			refresh(role, null);
+		}
+	}
+
+	/**
+	 * @param role
+	 * @return the entity filling the given role, or null if there's none.
+	 */
+	public Entity get(Role role) {
+		lookups++;
+		return entities[role.ordinal()];
+	}
+
+	/**
+	 * Closes the current frame's lookup count. Called once per engine update.
+	 */
+	public void endFrame() {
+		lastFrameLookups = lookups;
+		lookups = 0;
+	}
+
+	/**
+	 * @return how many lookups were served during the last frame, each one a call to getEntitiesFor() saved.
+	 */
+	public int getLastFrameLookups() {
+		return lastFrameLookups;
+	}
+
+	/**
+	 * Looks the role's entity up from its family. Only needed when the current one leaves.
+	 *
+	 * @param role
+	 * @param leaving an entity that may still be in the family's array but must be skipped, or null.
+	 */
+	private void refresh(Role role, Entity leaving) {
+		ImmutableArray<Entity> array = engine.getEntitiesFor(role.getFamily());
+		entities[role.ordinal()] = null;
+
+		for (int i = 0 ; i < array.size() ; i++) {
+			if (array.get(i) != leaving) {
+				entities[role.ordinal()] = array.get(i);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Updates a single role.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	private class RoleListener implements EntityListener {
+
+		private Role role;
+
+		private RoleListener(Role role) {
+			this.role = role;
+		}
+
+		@Override
+		public void entityAdded(Entity entity) {
+			if (entities[role.ordinal()] == null)
+				entities[role.ordinal()] = entity;
+		}
+
+		@Override
+		public void entityRemoved(Entity entity) {
+			if (entities[role.ordinal()] == entity)
+				refresh(role, entity);
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.gff.spacenauts.ashley;
 
+import com.badlogic.ashley.core.Component;
 import com.badlogic.ashley.core.Entity;
 import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.PooledEngine;
@@ -7,15 +8,23 @@ import com.badlogic.ashley.utils.ImmutableArray;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectIntMap.Entry;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.gff.spacenauts.Logger;
 import com.gff.spacenauts.Logger.LogLevel;
 import com.gff.spacenauts.Spacenauts;
+import com.gff.spacenauts.ashley.SingletonRegistry.Role;
 import com.gff.spacenauts.ashley.components.Angle;
 import com.gff.spacenauts.ashley.components.Hittable;
 import com.gff.spacenauts.ashley.components.Render;
 import com.gff.spacenauts.ashley.components.Timers;
 import com.gff.spacenauts.ashley.components.Velocity;
 import com.gff.spacenauts.ashley.systems.RenderingSystem;
+import com.gff.spacenauts.data.GunData;
 import com.gff.spacenauts.listeners.timers.ScreenTransition;
 import com.gff.spacenauts.net.NetworkAdapter.AdapterState;
 import com.gff.spacenauts.screens.GameOverScreen;
@@ -23,7 +32,13 @@ import com.gff.spacenauts.screens.GameScreen;
 import com.gff.spacenauts.screens.VictoryScreen;
 
 /**
- * An extended version of {@link PooledEngine} to fulfill common requests in the game's environment. 
+ * An extended version of {@link PooledEngine} to fulfill common requests in the game's environment.<br>
+ * Listeners that add or remove entities and components while systems are updating should use the deferred methods,
+ * which record the change in a {@link CommandBuffer} flushed at the end of {@link #update(float)}.<br>
+ * When the {@link FrameProfiler} is enabled, each system is timed on its own, along with its allocations, and the entities and components
+ * obtained from the engine's pools are counted.<br>
+ * Pools can be {@link #prewarm(PoolProfile) filled} before the level starts, and the engine keeps the high-water marks of its
+ * entities and components to fill them better the next time, see {@link #getPoolMarks()}.
  * 
  * @author Alessio Cali'
  *
@@ -40,10 +55,27 @@ public class SpacenautsEngine extends PooledEngine {
 	private Screen gameOverScreen;
 	private Screen nextScreen;
 	private final boolean multiplayer;
+	private SingletonRegistry registry;
+	private CommandBuffer commands = new CommandBuffer();
+	private boolean updating = false;
+	private FrameProfiler profiler = Spacenauts.getProfiler();
+	private boolean profiling = false;
+	private boolean[] processing = new boolean[16];
+	private int liveEntities = 0;
+	private int peakEntities = 0;
+	private boolean prewarming = false;
+	private PoolProfile marks = new PoolProfile();
+	private ObjectIntMap<Class<? extends Component>> componentCounts = new ObjectIntMap<Class<? extends Component>>();
+	private int framesSinceMark = 0;
+
+	private static final String PROFILE_ENTITIES = "PooledEngine/entities obtained";
+	private static final String PROFILE_ENTITY_MISSES = "PooledEngine/entities missed";
+	private static final String PROFILE_COMPONENTS = "PooledEngine/components obtained";
 
 	public SpacenautsEngine() {
 		super();
 		multiplayer = false;
+		registry = new SingletonRegistry(this);
 	}
 
 	public SpacenautsEngine(GameScreen gameScreen, Screen gameOverScreen, Screen nextScreen, boolean multiplayer, int entityPoolInitialSize, int entityPoolMaxSize,
@@ -54,21 +86,223 @@ public class SpacenautsEngine extends PooledEngine {
 		this.gameOverScreen = gameOverScreen;
 		this.nextScreen = nextScreen;
 		this.multiplayer = multiplayer;
+		registry = new SingletonRegistry(this);
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		if (!profiler.isEnabled()) {
+			updating = true;
+			super.update(deltaTime);
+			updating = false;
+			commands.flush(this);
+			registry.endFrame();
+			updateMarks();
+			return;
+		}
+
+		long frameStart = TimeUtils.nanoTime();
+		long frameBytes = profiler.getAllocatedBytes();
+		updating = true;
+		updateProfiled(deltaTime);
+		updating = false;
+
+		long flushStart = TimeUtils.nanoTime();
+		long flushBytes = profiler.getAllocatedBytes();
+		commands.flush(this);
+		registry.endFrame();
+
+		long end = TimeUtils.nanoTime();
+		long endBytes = profiler.getAllocatedBytes();
+		profiler.add(CommandBuffer.class, end - flushStart, endBytes - flushBytes);
+		profiler.add(FrameProfiler.FRAME, end - frameStart, endBytes - frameBytes);
+		profiler.endFrame();
+		updateMarks();
 	}
 
 	/**
-	 * Retrieves the player entity through component tagging.
+	 * Times each system on its own. Engine.update() runs all systems in one go, so it's called once per system with all other
+	 * systems stopped: entities and components are still added and removed after each system, same as usual.
+	 * Systems paused or resumed in the meantime are taken care of by {@link #setProcessing(EntitySystem, boolean)}.
+	 * 
+	 * @param deltaTime
+	 */
+	private void updateProfiled(float deltaTime) {
+		ImmutableArray<EntitySystem> systems = getSystems();
+		int count = systems.size();
+
+		if (processing.length < count)
+			processing = new boolean[count];
+
+		for (int i = 0 ; i < count ; i++)
+			processing[i] = systems.get(i).checkProcessing();
+
+		profiling = true;
+
+		for (int i = 0 ; i < count ; i++) {
+			if (!processing[i]) continue;
+
+			for (int j = 0 ; j < count ; j++)
+				systems.get(j).setProcessing(j == i);
+
+			long start = TimeUtils.nanoTime();
+			long bytes = profiler.getAllocatedBytes();
+			super.update(deltaTime);
+			profiler.add(systems.get(i).getClass(), TimeUtils.nanoTime() - start, profiler.getAllocatedBytes() - bytes);
+		}
+
+		profiling = false;
+
+		for (int i = 0 ; i < count ; i++)
+			systems.get(i).setProcessing(processing[i]);
+	}
+
+	/**
+	 * Obtains an entity from the pool. Entities that take the number of live pooled entities past its highest so far can't have
+	 * been free in the pool, so they're counted as misses.
+	 */
+	@Override
+	public Entity createEntity() {
+		liveEntities++;
+
+		if (profiler.isEnabled() && !prewarming) {
+			profiler.count(PROFILE_ENTITIES, 1);
+
+			if (liveEntities > peakEntities)
+				profiler.count(PROFILE_ENTITY_MISSES, liveEntities - peakEntities);
+		}
+
+		peakEntities = Math.max(peakEntities, liveEntities);
+		return super.createEntity();
+	}
+
+	@Override
+	public <T extends Component> T createComponent(Class<T> componentType) {
+		if (profiler.isEnabled() && !prewarming)
+			profiler.count(PROFILE_COMPONENTS, 1);
+
+		return super.createComponent(componentType);
+	}
+
+	@Override
+	protected void removeEntityInternal(Entity entity) {
+		//Only pooled entities go back to the pool, and they're the only ones not of the Entity class itself.
+		if (entity.getClass() != Entity.class)
+			liveEntities--;
+
+		super.removeEntityInternal(entity);
+	}
+
+	/**
+	 * Fills the engine's pools, and those of {@link GunData} and {@link SteeringMechanism}, with as many objects as the profile
+	 * says, so that the level doesn't have to create them while it's played. Entities and components are created, added
+	 * to the engine and removed right away, before any system is added. The pools' high-water marks are measured from here on.
+	 * 
+	 * @param profile
+	 */
+	public void prewarm(PoolProfile profile) {
+		int count = Math.max(profile.entities, profile.getMaxComponents());
+		Array<Entity> entities = new Array<Entity>(count);
+
+		prewarming = true;
+
+		for (int i = 0 ; i < count ; i++)
+			entities.add(createEntity());
+
+		for (Entry<Class<? extends Component>> entry : profile.components) {
+			for (int i = 0 ; i < entry.value ; i++)
+				entities.get(i).add(createComponent(entry.key));
+		}
+
+		//Entities and their components only go back to the pools once removed from the engine.
+		for (int i = 0 ; i < count ; i++)
+			addEntity(entities.get(i));
+
+		for (int i = 0 ; i < count ; i++)
+			removeEntity(entities.get(i));
+
+		prewarming = false;
+		peakEntities = Math.max(peakEntities, count);
+
+		prewarmPool(GunData.class, profile.gunData);
+		prewarmPool(SteeringMechanism.class, profile.steeringMechanisms);
+	}
+
+	/**
+	 * @return the most entities and components of each class this engine held at once, and the most {@link GunData} and 
+	 * {@link SteeringMechanism}s in use since it was {@link #prewarm(PoolProfile) prewarmed}. Components are counted every 
+	 * {@link FrameProfiler#WINDOW} frames, and whenever the engine holds more entities than ever.
+	 */
+	public PoolProfile getPoolMarks() {
+		marks.gunData = getHighWaterMark(GunData.class);
+		marks.steeringMechanisms = getHighWaterMark(SteeringMechanism.class);
+		return marks;
+	}
+
+	/**
+	 * @return the profiler this engine reports to.
+	 */
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Adds the entity once the current update is over, or right away if the engine isn't updating.
+	 * 
+	 * @param entity
+	 */
+	public void deferAddEntity(Entity entity) {
+		if (updating) commands.addEntity(entity);
+		else addEntity(entity);
+	}
+
+	/**
+	 * Removes the entity once the current update is over, or right away if the engine isn't updating.
+	 * Removing the same entity more than once during an update is harmless.
+	 * 
+	 * @param entity
+	 */
+	public void deferRemoveEntity(Entity entity) {
+		if (updating) commands.removeEntity(entity);
+		else removeEntity(entity);
+	}
+
+	/**
+	 * Adds the component to the entity once the current update is over, or right away if the engine isn't updating.
+	 * 
+	 * @param entity
+	 * @param component
+	 */
+	public void deferAddComponent(Entity entity, Component component) {
+		if (updating) commands.addComponent(entity, component);
+		else entity.add(component);
+	}
+
+	/**
+	 * Removes a component from the entity once the current update is over, or right away if the engine isn't updating.
+	 * 
+	 * @param entity
+	 * @param componentClass
+	 */
+	public void deferRemoveComponent(Entity entity, Class<? extends Component> componentClass) {
+		if (updating) commands.removeComponent(entity, componentClass);
+		else entity.remove(componentClass);
+	}
+
+	/**
+	 * @return the buffer holding this update's deferred commands, along with its per-frame metrics.
+	 */
+	public CommandBuffer getCommandBuffer() {
+		return commands;
+	}
+
+	/**
+	 * Retrieves the player entity through component tagging. Like the other singleton entities, it's kept by a {@link SingletonRegistry}.
 	 * 
 	 * @return the player entity.
 	 */
 	public Entity getPlayer(){
-		ImmutableArray<Entity> playerArray = getEntitiesFor(Families.PLAYER_FAMILY);
-		
-		if (playerArray.size() != 0){
-			return playerArray.first();
-		} else {
-			return null;
-		}
+		return registry.get(Role.PLAYER);
 	}
 	
 	/**
@@ -77,13 +311,7 @@ public class SpacenautsEngine extends PooledEngine {
 	 * @return the coop player entity, or null.
 	 */
 	public Entity getCoopPlayer() {
-		ImmutableArray<Entity> coopArray = getEntitiesFor(Families.COOP_FAMILY);
-		
-		if (coopArray.size() != 0){
-			return coopArray.first();
-		} else {
-			return null;
-		}
+		return registry.get(Role.COOP_PLAYER);
 	}
 	
 	/**
@@ -92,13 +320,7 @@ public class SpacenautsEngine extends PooledEngine {
 	 * @return the boss entity.
 	 */
 	public Entity getBoss(){
-		ImmutableArray<Entity> bossArray = getEntitiesFor(Families.BOSS_FAMILY);
-		
-		if (bossArray.size() != 0){
-			return bossArray.first();
-		} else {
-			return null;
-		}
+		return registry.get(Role.BOSS);
 	}
 	
 	/**
@@ -107,13 +329,7 @@ public class SpacenautsEngine extends PooledEngine {
 	 * @return the camera entity.
 	 */
 	public Entity getCamera(){
-		ImmutableArray<Entity> cameraArray = getEntitiesFor(Families.CAMERA_FAMILY);
-		
-		if (cameraArray.size() != 0){
-			return cameraArray.first();
-		} else {
-			return null;
-		}
+		return registry.get(Role.CAMERA);
 	}
 	
 	/**
@@ -134,15 +350,55 @@ public class SpacenautsEngine extends PooledEngine {
 			return playerTarget;
 	}
 	
+	public SingletonRegistry getRegistry() {
+		return registry;
+	}
+	
 	public Vector2 getCameraPosition() {
 		return Mappers.pm.get(getCamera()).value;
 	}
 	
+	private void updateMarks() {
+		if (liveEntities <= marks.entities && ++framesSinceMark < FrameProfiler.WINDOW) return;
+
+		ImmutableArray<Entity> entities = getEntities();
+		framesSinceMark = 0;
+		marks.entities = Math.max(marks.entities, liveEntities);
+		componentCounts.clear();
+
+		for (int i = 0 ; i < entities.size() ; i++) {
+			ImmutableArray<Component> components = entities.get(i).getComponents();
+
+			for (int j = 0 ; j < components.size() ; j++)
+				componentCounts.getAndIncrement(components.get(j).getClass(), 0, 1);
+		}
+
+		for (Entry<Class<? extends Component>> entry : componentCounts) {
+			if (entry.value > marks.components.get(entry.key, 0))
+				marks.components.put(entry.key, entry.value);
+		}
+	}
+
+	private static <T> void prewarmPool(Class<T> type, int size) {
+		Pool<T> pool = Pools.get(type);
+
+		if (pool instanceof CountingPool) {
+			((CountingPool<T>)pool).prewarm(size);
+			((CountingPool<T>)pool).resetHighWaterMark();
+		}
+	}
+
+	private static int getHighWaterMark(Class<?> type) {
+		Pool<?> pool = Pools.get(type);
+		return pool instanceof CountingPool ? ((CountingPool<?>)pool).getHighWaterMark() : 0;
+	}
+
 	/**
 	 * Cleans all resources from this engine.
 	 * 
 	 */
 	public void clear(){
+		commands.clear();
 		removeAllEntities();
 		
 		for (EntitySystem system : getSystems())
@@ -164,12 +420,8 @@ public class SpacenautsEngine extends PooledEngine {
 	 */
 	public void pause(){
 		if (running) {
-			for (EntitySystem system : getSystems()){
-				if (system instanceof RenderingSystem)
-					continue;
-				else 
-					system.setProcessing(false);
-			}
+			for (EntitySystem system : getSystems())
+				setProcessing(system, false);
 			
 			running = false;
 			controlsEnabled = false;
@@ -182,7 +434,7 @@ public class SpacenautsEngine extends PooledEngine {
 	public void resume(){
 		if (!running) {
 			for (EntitySystem system : getSystems())
-				system.setProcessing(true);
+				setProcessing(system, true);
 			
 			running = true;
 			
@@ -191,6 +443,24 @@ public class SpacenautsEngine extends PooledEngine {
 		}
 	}
 	
+	/**
+	 * Starts or stops a system. The {@link RenderingSystem} never stops.
+	 * 
+	 * @param system
+	 * @param processing
+	 */
+	private void setProcessing(EntitySystem system, boolean processing) {
+		if (!(system instanceof RenderingSystem)) {
+			//While profiling, the flags are restored from the snapshot once the frame is over.
+			int index = profiling ? getSystems().indexOf(system, true) : -1;
+			
+			if (index != -1)
+				this.processing[index] = processing;
+			else
+				system.setProcessing(processing);
+		}
+	}
+
 	/**
 	 * Pauses if running, and vice versa.
 	 */
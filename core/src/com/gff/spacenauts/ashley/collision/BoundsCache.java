@@ -0,0 +1,106 @@
+package com.gff.spacenauts.ashley.collision;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.components.Body;
+
+/**
+ * <p>
+ * The world space bounding rectangles of all colliders, indexed by slot and stored in a single float array, four floats per slot
+ * (minX, minY, maxX, maxY). Entities without a {@link Body} are stored as points, with equal min and max.
+ * </p>
+ *
+ * <p>
+ * {@link com.badlogic.gdx.math.Polygon#getBoundingRectangle() Polygon.getBoundingRectangle()} transforms all vertices again whenever
+ * the polygon moved, and walks all of them to find the bounds. The {@link com.gff.spacenauts.ashley.systems.CollisionSystem CollisionSystem}
+ * calls {@link #set(int, Entity)} once per collider and per physics step, right after movement, then both the broad phase and the narrow
+ * phase read from here.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class BoundsCache {
+
+	private float[] bounds = new float[256];
+	private boolean[] points = new boolean[64];
+
+	/**
+	 * Computes the entity's current bounds and stores them in the given slot.
+	 */
+	public void set(int slot, Entity entity) {
+		ensureCapacity(slot + 1);
+
+		Body body = Mappers.bm.get(entity);
+		int base = slot * 4;
+
+		if (body != null) {
+			Rectangle rect = body.polygon.getBoundingRectangle();
+			bounds[base] = rect.x;
+			bounds[base + 1] = rect.y;
+			bounds[base + 2] = rect.x + rect.width;
+			bounds[base + 3] = rect.y + rect.height;
+			points[slot] = false;
+		} else {
+			Vector2 pos = Mappers.pm.get(entity).value;
+			bounds[base] = bounds[base + 2] = pos.x;
+			bounds[base + 1] = bounds[base + 3] = pos.y;
+			points[slot] = true;
+		}
+	}
+
+	public float getMinX(int slot) {
+		return bounds[slot * 4];
+	}
+
+	public float getMinY(int slot) {
+		return bounds[slot * 4 + 1];
+	}
+
+	public float getMaxX(int slot) {
+		return bounds[slot * 4 + 2];
+	}
+
+	public float getMaxY(int slot) {
+		return bounds[slot * 4 + 3];
+	}
+
+	/**
+	 * @return whether the slot's entity has no body.
+	 */
+	public boolean isPoint(int slot) {
+		return points[slot];
+	}
+
+	/**
+	 * Same as {@link Rectangle#overlaps(Rectangle)}.
+	 */
+	public boolean overlaps(int slot, int otherSlot) {
+		int a = slot * 4, b = otherSlot * 4;
+		return bounds[a] < bounds[b + 2] && bounds[a + 2] > bounds[b] && bounds[a + 1] < bounds[b + 3] && bounds[a + 3] > bounds[b + 1];
+	}
+
+	/**
+	 * Same as {@link Rectangle#contains(float, float)}.
+	 */
+	public boolean contains(int slot, float x, float y) {
+		int base = slot * 4;
+		return bounds[base] <= x && bounds[base + 2] >= x && bounds[base + 1] <= y && bounds[base + 3] >= y;
+	}
+
+	private void ensureCapacity(int slots) {
+		if (points.length >= slots) return;
+
+		int length = Math.max(points.length * 2, slots);
+
+		float[] newBounds = new float[length * 4];
+		System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+		bounds = newBounds;
+
+		boolean[] newPoints = new boolean[length];
+		System.arraycopy(points, 0, newPoints, 0, points.length);
+		points = newPoints;
+	}
+}
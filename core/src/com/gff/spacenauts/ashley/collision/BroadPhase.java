@@ -0,0 +1,118 @@
+package com.gff.spacenauts.ashley.collision;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+import com.gff.spacenauts.Logger;
+import com.gff.spacenauts.Logger.LogLevel;
+
+/**
+ * <p>
+ * The broad phase of a {@link com.gff.spacenauts.ashley.systems.CollisionSystem CollisionSystem}. Its only job is to quickly tell
+ * which colliders <i>might</i> be touching a given entity, so that the narrow phase only tests those.
+ * </p>
+ *
+ * <p>
+ * Colliders are identified by a slot, a small integer assigned by the CollisionSystem when the entity enters the colliders family
+ * and released when it leaves it. Slots are dense and get reused, so implementations can keep their data in plain arrays indexed by slot.
+ * </p>
+ *
+ * <p>
+ * Colliders' bounds are read from a {@link BoundsCache} shared with the CollisionSystem, which refreshes it before {@link #update(Vector2)}
+ * and before {@link #insert(int, Entity)}.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public interface BroadPhase {
+
+	/**
+	 * Which broad phase implementation to use.
+	 *
+	 * <ul>
+	 * <li><b>REBUILD</b>: A {@link HashGrid} that is cleared and filled again at every step.</li>
+	 * <li><b>INCREMENTAL</b>: An {@link IncrementalHashGrid} that only moves entities whose cells changed since the last step.</li>
+	 * <li><b>COMPACT</b>: A {@link CompactHashGrid} that is rebuilt at every step into flat int arrays.</li>
+	 * <li><b>SAP</b>: A {@link SweepAndPrune} that keeps colliders sorted along the y axis.</li>
+	 * </ul>
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	public enum Type {
+		REBUILD("rebuild"),
+		INCREMENTAL("incremental"),
+		COMPACT("compact"),
+		SAP("sap");
+
+		private String typeName;
+
+		private Type(String typeName) {
+			this.typeName = typeName;
+		}
+
+		public String getName() {
+			return typeName;
+		}
+
+		public static Type getByName(String name) {
+			for (Type type : Type.values()) {
+				if (type.getName().equals(name))
+					return type;
+			}
+
+			Logger.log(LogLevel.WARNING, "BroadPhase", "Could not find member by name: " + name);
+			return null;
+		}
+	}
+
+	/**
+	 * Called when an entity becomes a collider.
+	 *
+	 * @param slot the slot assigned to the entity.
+	 * @param entity the collider.
+	 */
+	public void insert(int slot, Entity entity);
+
+	/**
+	 * Called when a collider leaves the colliders family or the engine.
+	 *
+	 * @param slot the slot the entity was using. It might be reused right after this call.
+	 */
+	public void remove(int slot);
+
+	/**
+	 * Brings the structure up to date with the colliders' current positions. Called once per physics step.
+	 *
+	 * @param center the center of the collision window, that is the camera position.
+	 */
+	public void update(Vector2 center);
+
+	/**
+	 * Adds to out the slots of all colliders that might overlap the given entity. The result may contain duplicates
+	 * as well as the entity's own slot: filtering them is up to the caller.
+	 *
+	 * @param entity the entity to test. It doesn't need to be a collider itself.
+	 * @param out the buffer where slots are added.
+	 */
+	public void query(Entity entity, IntArray out);
+
+	/**
+	 * Adds to out the slots of all colliders that might overlap the given rectangle. The result may contain duplicates.
+	 *
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 * @param out the buffer where slots are added.
+	 */
+	public void query(float minX, float minY, float maxX, float maxY, IntArray out);
+
+	/**
+	 * Hints the structure at the size of the largest body around. Implementations that don't depend on it can ignore the call.
+	 *
+	 * @param cellSize the new cell size.
+	 */
+	public void resize(float cellSize);
+}
@@ -0,0 +1,97 @@
+package com.gff.spacenauts.ashley.collision;
+
+import com.badlogic.ashley.core.Entity;
+import com.gff.spacenauts.ashley.Mappers;
+
+/**
+ * <p>
+ * Category and mask bitfields for colliders. A collider's category tells what it is, its mask tells which categories its
+ * {@link com.gff.spacenauts.listeners.HitListener HitListener}s care about. The {@link com.gff.spacenauts.ashley.systems.CollisionSystem CollisionSystem}
+ * only tests a collider against another if the first one's mask shares a bit with the second one's category, so whole classes of
+ * pairs (enemy against enemy, obstacle against obstacle...) are skipped before any bounding rectangle is even looked at.
+ * </p>
+ *
+ * <p>
+ * Both bitfields are derived from the entity's tag components when it becomes a collider, following the filters
+ * used by all hit listeners in the game:
+ * </p>
+ *
+ * <ul>
+ * <li><b>Friendly</b> entities care about enemies, enemy bullets and obstacles.</li>
+ * <li><b>Enemy</b> entities care about friendlies, friendly bullets and obstacles.</li>
+ * <li><b>Bullets</b> care about the same things as their faction, except other bullets: bullets have no body, and two
+ * points never collide anyway.</li>
+ * <li><b>Obstacles</b> care about everything but other obstacles.</li>
+ * <li>Untagged entities, like power ups, care about everything. Their category is empty though: since hit listeners filter
+ * colliders by tag, an untagged collider never triggers anything.</li>
+ * </ul>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public final class CollisionLayers {
+
+	public static final int NONE = 0;
+	public static final int FRIENDLY = 1;
+	public static final int ENEMY = 1 << 1;
+	public static final int FRIENDLY_BULLET = 1 << 2;
+	public static final int ENEMY_BULLET = 1 << 3;
+	public static final int OBSTACLE = 1 << 4;
+	public static final int ALL = ~0;
+
+	private CollisionLayers() {
+
+	}
+
+	/**
+	 * @return the entity's category bits.
+	 */
+	public static int getCategory(Entity entity) {
+		boolean bullet = Mappers.bum.get(entity) != null;
+		int category = NONE;
+
+		if (Mappers.fm.get(entity) != null)
+			category |= bullet ? FRIENDLY_BULLET : FRIENDLY;
+
+		if (Mappers.em.get(entity) != null)
+			category |= bullet ? ENEMY_BULLET : ENEMY;
+
+		if (Mappers.om.get(entity) != null)
+			category |= OBSTACLE;
+
+		return category;
+	}
+
+	/**
+	 * @return the categories the entity can collide with.
+	 */
+	public static int getMask(Entity entity) {
+		boolean bullet = Mappers.bum.get(entity) != null;
+		boolean tagged = false;
+		int mask = NONE;
+
+		if (Mappers.fm.get(entity) != null) {
+			mask |= ENEMY | OBSTACLE | (bullet ? NONE : ENEMY_BULLET);
+			tagged = true;
+		}
+
+		if (Mappers.em.get(entity) != null) {
+			mask |= FRIENDLY | OBSTACLE | (bullet ? NONE : FRIENDLY_BULLET);
+			tagged = true;
+		}
+
+		if (Mappers.om.get(entity) != null) {
+			mask |= FRIENDLY | ENEMY | FRIENDLY_BULLET | ENEMY_BULLET;
+			tagged = true;
+		}
+
+		return tagged ? mask : ALL;
+	}
+
+	/**
+	 * @return whether an entity with the given mask should be tested against a collider with the given category.
+	 */
+	public static boolean accepts(int mask, int category) {
+		return (mask & category) != 0;
+	}
+}
@@ -0,0 +1,105 @@
+package com.gff.spacenauts.ashley.collision;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * <p>
+ * A {@link HashGrid} whose cells are stored in two flat int arrays instead of one list per cell, the same way sparse matrices
+ * are stored in CSR (compressed sparse row) format:
+ * </p>
+ *
+ * <ul>
+ * <li><b>cellEntries</b> holds the slots of all entities, sorted by cell.</li>
+ * <li><b>cellStart</b> holds, for each cell, the index of its first entry in cellEntries. The cell's entries end where the next cell's begin.</li>
+ * </ul>
+ *
+ * <p>
+ * The grid is rebuilt at every step with a counting sort: a first pass counts how many entities fall in each cell, a prefix sum
+ * turns the counts into start indices, and a second pass writes the slots in place. Both arrays only grow, so once they reach
+ * the level's peak size no memory is allocated anymore. Entries within a cell are always sorted by slot.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class CompactHashGrid extends HashGrid {
+
+	//Allocated from the super constructor, so they must not have initializers.
+	private int[] cellStart;
+	private int[] cellCursor;
+	private int[] cellEntries;
+	private int[] slotCells;
+
+	public CompactHashGrid(float windowWidth, float windowHeight, float cellSize, BoundsCache bounds) {
+		super(windowWidth, windowHeight, cellSize, bounds);
+	}
+
+	@Override
+	protected void addCell(int cellId, IntArray out) {
+		out.addAll(cellEntries, cellStart[cellId], cellStart[cellId + 1] - cellStart[cellId]);
+	}
+
+	@Override
+	protected void rebuild() {
+		int slotsNumber = entities.size;
+
+		if (slotCells == null || slotCells.length < slotsNumber * 4)
+			slotCells = new int[Math.max(slotsNumber * 4, 64)];
+
+		for (int i = 0 ; i <= cellsNumber ; i++)
+			cellStart[i] = 0;
+
+		//First pass: count the entities in each cell. Counts are shifted by one to make the prefix sum below simpler.
+		int total = 0;
+
+		for (int slot = 0 ; slot < slotsNumber ; slot++) {
+			int base = slot * 4;
+			Entity entity = entities.get(slot);
+
+			if (entity == null) {
+				slotCells[base] = -1;
+				continue;
+			}
+
+			int[] cellIds = getCellIds(slot);
+
+			for (int i = 0 ; i < 4 ; i++) {
+				int cellId = cellIds[i];
+				slotCells[base + i] = cellId;
+
+				if (cellId != -1) {
+					cellStart[cellId + 1]++;
+					total++;
+				}
+			}
+		}
+
+		for (int i = 0 ; i < cellsNumber ; i++) {
+			cellStart[i + 1] += cellStart[i];
+			cellCursor[i] = cellStart[i];
+		}
+
+		if (cellEntries == null || cellEntries.length < total)
+			cellEntries = new int[Math.max(total * 2, 64)];
+
+		//Second pass: write each slot at its cell's cursor.
+		for (int slot = 0 ; slot < slotsNumber ; slot++) {
+			int base = slot * 4;
+
+			for (int i = 0 ; i < 4 ; i++) {
+				int cellId = slotCells[base + i];
+
+				if (cellId == -1) break;
+
+				cellEntries[cellCursor[cellId]++] = slot;
+			}
+		}
+	}
+
+	@Override
+	protected void allocateCells() {
+		cellStart = new int[cellsNumber + 1];
+		cellCursor = new int[cellsNumber];
+	}
+}
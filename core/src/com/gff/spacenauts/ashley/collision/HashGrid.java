@@ -0,0 +1,269 @@
+package com.gff.spacenauts.ashley.collision;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.components.Body;
+
+/**
+ * <p>
+ * The original broad phase, code borrowed from Beginning Android Games, Second Edition.
+ * </p>
+ *
+ * <p>
+ * The world is divided into square cells each of a fixed size. An array of lists is then instantiated, one for each cell. These lists
+ * contain the slots of all entities that have part of their bodies within the respective cell. At each step all lists are cleared
+ * and filled again. Colliders' bounds are read from a {@link BoundsCache}.
+ * </p>
+ *
+ * <h1>The collision window</h1>
+ * <p>
+ * The hash grid only covers enough space to fit the camera's viewport; this space is called the collision window,
+ * which is a rectangle centered on the current camera position. For the algorithm to work the entities must have positive coordinates
+ * not higher than the window's size. Because of that, all entities are translated to a new space whose origin is the lower left corner
+ * of the collision window. If the camera has world coordinates (xC, yC), the new origin will have world coordinates
+ * (xC - windowWidth / 2, yC - windowHeight / 2). All entities outside the collision window are automatically ignored.
+ * </p>
+ *
+ * @author Alessio Cali'
+ * @see <b>Mario Zechner</b> and <b>Robert Green</b>, <a href="http://www.apress.com/9781430246770"><i>Beginning Android Games, Second Edition</i></a> (Apress, 2012), 391-398.
+ *
+ */
+public class HashGrid implements BroadPhase {
+
+	protected float cellSize;
+	protected int cellsNumber;
+	protected int cellsPerCol;
+	protected int cellsPerRow;
+
+	protected float windowWidth, windowHeight;
+	protected Vector2 offset = new Vector2();
+	protected boolean dirty = false;
+	private int padding;
+
+	protected IntArray[] cells;
+	protected Array<Entity> entities = new Array<Entity>();
+	protected int[] cellIdsBuffer = new int[4];
+	protected BoundsCache bounds;
+
+	public HashGrid(float windowWidth, float windowHeight, float cellSize, BoundsCache bounds) {
+		this(windowWidth, windowHeight, cellSize, bounds, 0);
+	}
+
+	/**
+	 * @param padding extra cells added to each row and column, for grids whose origin doesn't follow the camera exactly.
+	 */
+	protected HashGrid(float windowWidth, float windowHeight, float cellSize, BoundsCache bounds, int padding) {
+		this.bounds = bounds;
+		this.windowWidth = windowWidth;
+		this.windowHeight = windowHeight;
+		this.cellSize = cellSize;
+		this.padding = padding;
+		resizeInternal();
+	}
+
+	@Override
+	public void insert(int slot, Entity entity) {
+		while (entities.size <= slot)
+			entities.add(null);
+
+		entities.set(slot, entity);
+	}
+
+	@Override
+	public void remove(int slot) {
+		entities.set(slot, null);
+	}
+
+	/**
+	 * Clears the lists representing the hash grid's cells, then fills them again.
+	 */
+	@Override
+	public void update(Vector2 center) {
+		if (dirty) resizeInternal();
+
+		offset.set(center).sub(windowWidth / 2, windowHeight / 2);
+		rebuild();
+	}
+
+	/**
+	 * The entity's bounds are computed on the spot, since it may not be a collider.
+	 */
+	@Override
+	public void query(Entity entity, IntArray out) {
+		int[] cellIds = getCellIds(entity);
+		int i = 0;
+		int cellId = -1;
+
+		while (i <= 3 && (cellId = cellIds[i++]) != -1)
+			addCell(cellId, out);
+	}
+
+	/**
+	 * Unlike {@link #query(Entity, IntArray)}, the rectangle can be of any size.
+	 */
+	@Override
+	public void query(float minX, float minY, float maxX, float maxY, IntArray out) {
+		int x1 = Math.max((int)Math.floor((minX - offset.x) / cellSize), 0);
+		int y1 = Math.max((int)Math.floor((minY - offset.y) / cellSize), 0);
+		int x2 = Math.min((int)Math.floor((maxX - offset.x) / cellSize), cellsPerRow - 1);
+		int y2 = Math.min((int)Math.floor((maxY - offset.y) / cellSize), cellsPerCol - 1);
+
+		for (int y = y1 ; y <= y2 ; y++) {
+			for (int x = x1 ; x <= x2 ; x++)
+				addCell(x + y * cellsPerRow, out);
+		}
+	}
+
+	@Override
+	public void resize(float cellSize) {
+		if (this.cellSize == cellSize) return;
+
+		this.cellSize = cellSize;
+		dirty = true;
+	}
+
+	/**
+	 * Clears all cells and inserts every registered entity again.
+	 */
+	protected void rebuild() {
+		for (int i = 0 ; i < cellsNumber ; i++)
+			cells[i].clear();
+
+		for (int slot = 0 ; slot < entities.size ; slot++) {
+			Entity entity = entities.get(slot);
+
+			if (entity == null) continue;
+
+			int[] cellIds = getCellIds(slot);
+			int i = 0;
+			int cellId = -1;
+
+			while (i <= 3 && (cellId = cellIds[i++]) != -1)
+				cells[cellId].add(slot);
+		}
+	}
+
+	/**
+	 * @see #getCellIds(float, float, float, float)
+	 */
+	protected int[] getCellIds(int slot){
+		return getCellIds(bounds.getMinX(slot), bounds.getMinY(slot), bounds.getMaxX(slot), bounds.getMaxY(slot));
+	}
+
+	/**
+	 * @see #getCellIds(float, float, float, float)
+	 */
+	protected int[] getCellIds(Entity entity){
+		Body body = Mappers.bm.get(entity);
+
+		if (body == null) {
+			Vector2 pos = Mappers.pm.get(entity).value;
+			return getCellIds(pos.x, pos.y, pos.x, pos.y);
+		} else {
+			Rectangle bodyBounds = body.polygon.getBoundingRectangle();
+			return getCellIds(bodyBounds.x, bodyBounds.y, bodyBounds.x + bodyBounds.width, bodyBounds.y + bodyBounds.height);
+		}
+	}
+
+	/**
+	 * Return the IDs of the cells a rectangle is contained in within the hash grid. A point is a rectangle with
+	 * no width nor height. This assumes no object is large enough to be included in more than 4 cells.
+	 *
+	 * @return The cells' IDs. Unused entries are set to -1.
+	 */
+	protected int[] getCellIds(float minX, float minY, float maxX, float maxY){
+		//Positions are offset by the origin of the collision area.
+		//Only viewable entities will be processed, plus a small margin.
+		int x1 = (int)Math.floor((minX - offset.x) / cellSize);
+		int y1 = (int)Math.floor((minY - offset.y) / cellSize);
+		int x2 = (int)Math.floor((maxX - offset.x) / cellSize);
+		int y2 = (int)Math.floor((maxY - offset.y) / cellSize);
+
+		if(x1 == x2 && y1 == y2) {
+			if(x1 >= 0 && x1 < cellsPerRow && y1 >= 0 && y1 < cellsPerCol)
+				cellIdsBuffer[0] = x1 + y1 * cellsPerRow;
+			else
+				cellIdsBuffer[0] = -1;
+
+			cellIdsBuffer[1] = -1;
+			cellIdsBuffer[2] = -1;
+			cellIdsBuffer[3] = -1;
+
+		} else if (x1 == x2) {
+			int i = 0;
+
+			if(x1 >= 0 && x1 < cellsPerRow) {
+				if(y1 >= 0 && y1 < cellsPerCol)
+					cellIdsBuffer[i++] = x1 + y1 * cellsPerRow;
+				if(y2 >= 0 && y2 < cellsPerCol)
+					cellIdsBuffer[i++] = x1 + y2 * cellsPerRow;
+			}
+
+			while(i <= 3) cellIdsBuffer[i++] = -1;
+
+		} else if(y1 == y2) {
+			int i = 0;
+
+			if(y1 >= 0 && y1 < cellsPerCol) {
+				if(x1 >= 0 && x1 < cellsPerRow)
+					cellIdsBuffer[i++] = x1 + y1 * cellsPerRow;
+				if(x2 >= 0 && x2 < cellsPerRow)
+					cellIdsBuffer[i++] = x2 + y1 * cellsPerRow;
+			}
+
+			while(i <= 3) cellIdsBuffer[i++] = -1;
+
+		} else {
+			int i = 0;
+			int y1CellsPerRow = y1 * cellsPerRow;
+			int y2CellsPerRow = y2 * cellsPerRow;
+
+			if(x1 >= 0 && x1 < cellsPerRow && y1 >= 0 && y1 < cellsPerCol)
+				cellIdsBuffer[i++] = x1 + y1CellsPerRow;
+			if(x2 >= 0 && x2 < cellsPerRow && y1 >= 0 && y1 < cellsPerCol)
+				cellIdsBuffer[i++] = x2 + y1CellsPerRow;
+			if(x2 >= 0 && x2 < cellsPerRow && y2 >= 0 && y2 < cellsPerCol)
+				cellIdsBuffer[i++] = x2 + y2CellsPerRow;
+			if(x1 >= 0 && x1 < cellsPerRow && y2 >= 0 && y2 < cellsPerCol)
+				cellIdsBuffer[i++] = x1 + y2CellsPerRow;
+
+			while(i <= 3) cellIdsBuffer[i++] = -1;
+		}
+
+		return cellIdsBuffer;
+	}
+
+	/**
+	 * Adds all slots in the given cell to out.
+	 */
+	protected void addCell(int cellId, IntArray out) {
+		out.addAll(cells[cellId]);
+	}
+
+	/**
+	 * Recomputes the grid's dimensions after a change of cell size. All cells are allocated again.
+	 */
+	protected void resizeInternal() {
+		cellsPerRow = (int)Math.ceil(windowWidth / cellSize) + padding;
+		cellsPerCol = (int)Math.ceil(windowHeight / cellSize) + padding;
+		cellsNumber = cellsPerRow * cellsPerCol;
+
+		allocateCells();
+
+		dirty = false;
+	}
+
+	/**
+	 * Allocates the cells' storage once the grid's dimensions are known.
+	 */
+	protected void allocateCells() {
+		cells = new IntArray[cellsNumber];
+
+		for (int i = 0 ; i < cellsNumber ; i++)
+			cells[i] = new IntArray(10);
+	}
+}
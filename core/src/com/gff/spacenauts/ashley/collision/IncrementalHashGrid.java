@@ -0,0 +1,134 @@
+package com.gff.spacenauts.ashley.collision;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * <p>
+ * A {@link HashGrid} that isn't rebuilt at every step. The cells each entity occupied during the last step are cached,
+ * and an entity is moved between lists only when its bounding rectangle crosses a cell boundary. Most entities
+ * move much less than a cell per step, so most steps end up touching only a handful of lists.
+ * </p>
+ *
+ * <p>
+ * For this to work the grid can't be glued to the camera like the regular one, otherwise every entity would change cell
+ * whenever the camera moves. The collision window's origin is instead snapped to a multiple of the cell size, and the grid
+ * has an extra row and column to make up for it. When the camera scrolls far enough for the snapped origin to change, the
+ * grid is rebuilt from scratch; at regular camera speeds that happens once every few seconds.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class IncrementalHashGrid extends HashGrid {
+
+	//The cells occupied by each slot during the last step, 4 entries per slot.
+	private int[] cachedCells = new int[0];
+	private float originX, originY;
+	private boolean built = false;
+
+	public IncrementalHashGrid(float windowWidth, float windowHeight, float cellSize, BoundsCache bounds) {
+		super(windowWidth, windowHeight, cellSize, bounds, 1);
+	}
+
+	@Override
+	public void insert(int slot, Entity entity) {
+		super.insert(slot, entity);
+
+		if (cachedCells.length < (slot + 1) * 4) {
+			int[] newCache = new int[Math.max(cachedCells.length * 2, (slot + 1) * 4)];
+			System.arraycopy(cachedCells, 0, newCache, 0, cachedCells.length);
+			cachedCells = newCache;
+		}
+
+		//The entity will be put in its cells at the next update.
+		for (int i = 0 ; i < 4 ; i++)
+			cachedCells[slot * 4 + i] = -1;
+	}
+
+	@Override
+	public void remove(int slot) {
+		for (int i = 0 ; i < 4 ; i++) {
+			int cellId = cachedCells[slot * 4 + i];
+
+			if (cellId != -1) {
+				cells[cellId].removeValue(slot);
+				cachedCells[slot * 4 + i] = -1;
+			}
+		}
+
+		super.remove(slot);
+	}
+
+	/**
+	 * Moves entities whose cells changed since the last step. The whole grid is rebuilt only if the cell size or
+	 * the snapped origin changed.
+	 */
+	@Override
+	public void update(Vector2 center) {
+		boolean resized = dirty;
+
+		if (dirty) resizeInternal();
+
+		float newOriginX = (float)Math.floor((center.x - windowWidth / 2) / cellSize) * cellSize;
+		float newOriginY = (float)Math.floor((center.y - windowHeight / 2) / cellSize) * cellSize;
+
+		if (!built || resized || newOriginX != originX || newOriginY != originY) {
+			originX = newOriginX;
+			originY = newOriginY;
+			offset.set(originX, originY);
+			rebuild();
+			built = true;
+			return;
+		}
+
+		for (int slot = 0 ; slot < entities.size ; slot++) {
+			Entity entity = entities.get(slot);
+
+			if (entity == null) continue;
+
+			int[] cellIds = getCellIds(slot);
+			int base = slot * 4;
+
+			if (cellIds[0] == cachedCells[base] && cellIds[1] == cachedCells[base + 1] &&
+				cellIds[2] == cachedCells[base + 2] && cellIds[3] == cachedCells[base + 3])
+				continue;
+
+			for (int i = 0 ; i < 4 ; i++) {
+				int cellId = cachedCells[base + i];
+
+				if (cellId != -1) cells[cellId].removeValue(slot);
+			}
+
+			for (int i = 0 ; i < 4 ; i++) {
+				int cellId = cellIds[i];
+
+				if (cellId != -1) cells[cellId].add(slot);
+
+				cachedCells[base + i] = cellId;
+			}
+		}
+	}
+
+	@Override
+	protected void rebuild() {
+		for (int i = 0 ; i < cellsNumber ; i++)
+			cells[i].clear();
+
+		for (int slot = 0 ; slot < entities.size ; slot++) {
+			Entity entity = entities.get(slot);
+
+			if (entity == null) continue;
+
+			int[] cellIds = getCellIds(slot);
+
+			for (int i = 0 ; i < 4 ; i++) {
+				int cellId = cellIds[i];
+
+				if (cellId != -1) cells[cellId].add(slot);
+
+				cachedCells[slot * 4 + i] = cellId;
+			}
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.gff.spacenauts.ashley.collision;
+
+/**
+ * <p>
+ * Runs batches of independent tasks on several threads. The core project has no threads of its own (it must also build for GWT),
+ * so backends that can afford them pass an implementation to {@link com.gff.spacenauts.Spacenauts Spacenauts}.
+ * The {@link com.gff.spacenauts.ashley.systems.CollisionSystem CollisionSystem} uses it to split its narrow phase.
+ * </p>
+ *
+ * <p>
+ * See DesktopRunner in the desktop project for an implementation based on a fixed thread pool.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public interface ParallelRunner {
+
+	/**
+	 * A piece of work that can run on any thread. Tasks of the same batch must not write to shared data.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	public interface Task {
+
+		/**
+		 * @param index the task's index within its batch, from 0 to count - 1.
+		 */
+		public void run(int index);
+	}
+
+	/**
+	 * @return how many tasks can actually run at the same time.
+	 */
+	public int getParallelism();
+
+	/**
+	 * Runs task once per index from 0 to count - 1 and returns only when all of them completed.
+	 * Any exception thrown by a task is rethrown on the calling thread. The task of index 0 always runs on the calling thread.
+	 *
+	 * @param task
+	 * @param count
+	 */
+	public void run(Task task, int count);
+
+	/**
+	 * Releases all threads. The runner can't be used anymore afterwards.
+	 */
+	public void dispose();
+}
@@ -0,0 +1,204 @@
+package com.gff.spacenauts.ashley.collision;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * <p>
+ * A uniform grid for colliders that never move, like the level's obstacles. Unlike the {@link BroadPhase}s, which are brought
+ * up to date at every physics step and only cover the collision window, this grid spans all of its colliders and is built only once,
+ * the first time it's queried after colliders were added or removed. In practice, that means once per level.
+ * </p>
+ *
+ * <p>
+ * Cells are stored in CSR format just like in {@link CompactHashGrid}. A collider is listed in every cell its bounding rectangle touches,
+ * however large it is, and queries only report colliders whose bounding rectangle actually overlaps the queried area.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class StaticIndex {
+
+	private static final float CELL_SIZE = 8f;
+
+	private BoundsCache bounds;
+
+	//Bounds, indexed by slot. Copied from the BoundsCache on insertion.
+	private float[] minX = new float[64];
+	private float[] minY = new float[64];
+	private float[] maxX = new float[64];
+	private float[] maxY = new float[64];
+
+	private IntArray members = new IntArray();
+	private boolean dirty = false;
+
+	private float originX, originY;
+	private int cellsPerRow, cellsPerCol;
+	private int[] cellStart = new int[1];
+	private int[] cellEntries = new int[64];
+
+	public StaticIndex(BoundsCache bounds) {
+		this.bounds = bounds;
+	}
+
+	/**
+	 * Adds a static collider. The grid will be rebuilt on the next query.
+	 *
+	 * @param slot the slot assigned to the entity. Its bounds must be already in the BoundsCache.
+	 * @param entity the collider.
+	 */
+	public void insert(int slot, Entity entity) {
+		if (minX.length <= slot) {
+			int length = Math.max(minX.length * 2, slot + 1);
+			minX = grow(minX, length);
+			minY = grow(minY, length);
+			maxX = grow(maxX, length);
+			maxY = grow(maxY, length);
+		}
+
+		minX[slot] = bounds.getMinX(slot);
+		minY[slot] = bounds.getMinY(slot);
+		maxX[slot] = bounds.getMaxX(slot);
+		maxY[slot] = bounds.getMaxY(slot);
+
+		members.add(slot);
+		dirty = true;
+	}
+
+	/**
+	 * Removes a static collider. The grid will be rebuilt on the next query.
+	 *
+	 * @param slot
+	 */
+	public void remove(int slot) {
+		if (members.removeValue(slot))
+			dirty = true;
+	}
+
+	public void clear() {
+		members.clear();
+		dirty = true;
+	}
+
+	/**
+	 * Builds the grid now if colliders were added or removed since the last build, so that the following queries
+	 * don't write anything and can run from several threads at once.
+	 */
+	public void update() {
+		if (dirty) build();
+	}
+
+	public int size() {
+		return members.size;
+	}
+
+	/**
+	 * Adds to out the slots of all static colliders whose bounding rectangle overlaps the given area.
+	 * A collider spanning many cells may be added more than once.
+	 */
+	public void query(float qMinX, float qMinY, float qMaxX, float qMaxY, IntArray out) {
+		if (dirty) build();
+
+		if (members.size == 0) return;
+
+		int firstCol = Math.max(cellCoord(qMinX, originX), 0);
+		int lastCol = Math.min(cellCoord(qMaxX, originX), cellsPerRow - 1);
+		int firstRow = Math.max(cellCoord(qMinY, originY), 0);
+		int lastRow = Math.min(cellCoord(qMaxY, originY), cellsPerCol - 1);
+
+		for (int row = firstRow ; row <= lastRow ; row++) {
+			for (int col = firstCol ; col <= lastCol ; col++) {
+				int cellId = row * cellsPerRow + col;
+
+				for (int i = cellStart[cellId] ; i < cellStart[cellId + 1] ; i++) {
+					int slot = cellEntries[i];
+
+					if (minX[slot] <= qMaxX && maxX[slot] >= qMinX && minY[slot] <= qMaxY && maxY[slot] >= qMinY)
+						out.add(slot);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lays the grid over the union of all colliders' bounds and fills it with a counting sort.
+	 */
+	private void build() {
+		dirty = false;
+
+		if (members.size == 0) return;
+
+		float unionMinX = Float.POSITIVE_INFINITY, unionMinY = Float.POSITIVE_INFINITY;
+		float unionMaxX = Float.NEGATIVE_INFINITY, unionMaxY = Float.NEGATIVE_INFINITY;
+
+		for (int i = 0 ; i < members.size ; i++) {
+			int slot = members.get(i);
+			unionMinX = Math.min(unionMinX, minX[slot]);
+			unionMinY = Math.min(unionMinY, minY[slot]);
+			unionMaxX = Math.max(unionMaxX, maxX[slot]);
+			unionMaxY = Math.max(unionMaxY, maxY[slot]);
+		}
+
+		originX = unionMinX;
+		originY = unionMinY;
+		cellsPerRow = cellCoord(unionMaxX, originX) + 1;
+		cellsPerCol = cellCoord(unionMaxY, originY) + 1;
+
+		int cellsNumber = cellsPerRow * cellsPerCol;
+
+		if (cellStart.length < cellsNumber + 1)
+			cellStart = new int[cellsNumber + 1];
+		else
+			for (int i = 0 ; i <= cellsNumber ; i++)
+				cellStart[i] = 0;
+
+		//First pass: count. Counts are shifted by one like in CompactHashGrid.
+		int total = 0;
+
+		for (int i = 0 ; i < members.size ; i++) {
+			int slot = members.get(i);
+
+			for (int row = cellCoord(minY[slot], originY) ; row <= cellCoord(maxY[slot], originY) ; row++) {
+				for (int col = cellCoord(minX[slot], originX) ; col <= cellCoord(maxX[slot], originX) ; col++) {
+					cellStart[row * cellsPerRow + col + 1]++;
+					total++;
+				}
+			}
+		}
+
+		for (int i = 0 ; i < cellsNumber ; i++)
+			cellStart[i + 1] += cellStart[i];
+
+		if (cellEntries.length < total)
+			cellEntries = new int[total];
+
+		//Second pass: fill. cellCursor is not needed since cellStart is shifted back while filling.
+		for (int i = 0 ; i < members.size ; i++) {
+			int slot = members.get(i);
+
+			for (int row = cellCoord(minY[slot], originY) ; row <= cellCoord(maxY[slot], originY) ; row++) {
+				for (int col = cellCoord(minX[slot], originX) ; col <= cellCoord(maxX[slot], originX) ; col++) {
+					int cellId = row * cellsPerRow + col;
+					cellEntries[cellStart[cellId]++] = slot;
+				}
+			}
+		}
+
+		//Each cellStart now holds the next cell's start: shift everything back by one.
+		for (int i = cellsNumber ; i > 0 ; i--)
+			cellStart[i] = cellStart[i - 1];
+
+		cellStart[0] = 0;
+	}
+
+	private int cellCoord(float value, float origin) {
+		return (int) Math.floor((value - origin) / CELL_SIZE);
+	}
+
+	private float[] grow(float[] array, int length) {
+		float[] newArray = new float[length];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+}
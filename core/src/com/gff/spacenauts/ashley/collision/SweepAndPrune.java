@@ -0,0 +1,245 @@
+package com.gff.spacenauts.ashley.collision;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.components.Body;
+
+/**
+ * <p>
+ * A sort-and-sweep broad phase. All colliders are kept in an array sorted by the lower edge of their bounding rectangle (the y axis
+ * is used since the game scrolls vertically, so that's where entities are most spread out). A query then only needs to look at
+ * entities whose lower edge falls between the queried rectangle's lower edge minus the tallest collider's height and its upper edge:
+ * a binary search finds the first one, then the array is swept up to the last one.
+ * </p>
+ *
+ * <p>
+ * The sorted array persists between steps. Since entities move very little in 10ms, the array is almost sorted already at every step
+ * and an insertion sort puts it back in order in nearly linear time. Unlike the hash grids, there's no cell size to tune.
+ * </p>
+ *
+ * <p>
+ * Since the sweep starts one collider height below the queried rectangle, a single tall body (think of a boss) would make every query
+ * sweep much further than needed. Colliders taller than {@link #LARGE_HEIGHT} are thus kept out of the height computation and
+ * checked separately by every query. There are never more than a couple of them.
+ * </p>
+ *
+ * <p>
+ * The collision window is honored like in {@link HashGrid}: entities entirely outside of it are never reported.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class SweepAndPrune implements BroadPhase {
+
+	private static final float LARGE_HEIGHT = 4f;
+
+	private float windowWidth, windowHeight;
+	private float windowMinX, windowMinY, windowMaxX, windowMaxY;
+
+	private BoundsCache bounds;
+
+	//Bounds, indexed by slot. Copied from the BoundsCache at each step, so that the sort and the sweep only touch these arrays.
+	private float[] minX = new float[64];
+	private float[] minY = new float[64];
+	private float[] maxX = new float[64];
+	private float[] maxY = new float[64];
+
+	//Active slots, sorted by minY.
+	private int[] order = new int[64];
+	private int size = 0;
+	private float maxHeight = 0;
+
+	//Slots taller than LARGE_HEIGHT.
+	private IntArray large = new IntArray();
+	private boolean[] isLarge = new boolean[64];
+
+	public SweepAndPrune(float windowWidth, float windowHeight, BoundsCache bounds) {
+		this.bounds = bounds;
+		this.windowWidth = windowWidth;
+		this.windowHeight = windowHeight;
+		windowMinX = windowMinY = Float.NEGATIVE_INFINITY;
+		windowMaxX = windowMaxY = Float.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public void insert(int slot, Entity entity) {
+		if (minX.length <= slot) {
+			int length = Math.max(minX.length * 2, slot + 1);
+			minX = grow(minX, length);
+			minY = grow(minY, length);
+			maxX = grow(maxX, length);
+			maxY = grow(maxY, length);
+
+			boolean[] newIsLarge = new boolean[length];
+			System.arraycopy(isLarge, 0, newIsLarge, 0, isLarge.length);
+			isLarge = newIsLarge;
+		}
+
+		if (order.length <= size) {
+			int[] newOrder = new int[order.length * 2];
+			System.arraycopy(order, 0, newOrder, 0, size);
+			order = newOrder;
+		}
+
+		copyBounds(slot);
+		classify(slot);
+
+		int index = lowerBound(minY[slot]);
+		System.arraycopy(order, index, order, index + 1, size - index);
+		order[index] = slot;
+		size++;
+	}
+
+	@Override
+	public void remove(int slot) {
+		for (int i = 0 ; i < size ; i++) {
+			if (order[i] == slot) {
+				System.arraycopy(order, i + 1, order, i, size - i - 1);
+				size--;
+				break;
+			}
+		}
+
+		if (isLarge[slot]) {
+			large.removeValue(slot);
+			isLarge[slot] = false;
+		}
+	}
+
+	/**
+	 * Refreshes all bounds, then sorts the array again with an insertion sort.
+	 */
+	@Override
+	public void update(Vector2 center) {
+		windowMinX = center.x - windowWidth / 2;
+		windowMinY = center.y - windowHeight / 2;
+		windowMaxX = center.x + windowWidth / 2;
+		windowMaxY = center.y + windowHeight / 2;
+
+		maxHeight = 0;
+		large.clear();
+
+		for (int i = 0 ; i < size ; i++) {
+			int slot = order[i];
+			isLarge[slot] = false;
+			copyBounds(slot);
+			classify(slot);
+		}
+
+		for (int i = 1 ; i < size ; i++) {
+			int slot = order[i];
+			float key = minY[slot];
+			int j = i - 1;
+
+			while (j >= 0 && minY[order[j]] > key) {
+				order[j + 1] = order[j];
+				j--;
+			}
+
+			order[j + 1] = slot;
+		}
+	}
+
+	@Override
+	public void query(Entity entity, IntArray out) {
+		Body body = Mappers.bm.get(entity);
+
+		if (body != null) {
+			Rectangle rect = body.polygon.getBoundingRectangle();
+			query(rect.x, rect.y, rect.x + rect.width, rect.y + rect.height, out);
+		} else {
+			Vector2 pos = Mappers.pm.get(entity).value;
+			query(pos.x, pos.y, pos.x, pos.y, out);
+		}
+	}
+
+	@Override
+	public void query(float qMinX, float qMinY, float qMaxX, float qMaxY, IntArray out) {
+		if (!inWindow(qMinX, qMinY, qMaxX, qMaxY)) return;
+
+		for (int i = lowerBound(qMinY - maxHeight) ; i < size ; i++) {
+			int slot = order[i];
+
+			if (minY[slot] > qMaxY) break;
+
+			if (!isLarge[slot] && overlaps(slot, qMinX, qMinY, qMaxX, qMaxY))
+				out.add(slot);
+		}
+
+		for (int i = 0 ; i < large.size ; i++) {
+			int slot = large.get(i);
+
+			if (overlaps(slot, qMinX, qMinY, qMaxX, qMaxY))
+				out.add(slot);
+		}
+	}
+
+	/**
+	 * Sort and sweep has no cells, so this does nothing.
+	 */
+	@Override
+	public void resize(float cellSize) {
+
+	}
+
+	private boolean overlaps(int slot, float qMinX, float qMinY, float qMaxX, float qMaxY) {
+		return minY[slot] <= qMaxY && maxY[slot] >= qMinY && minX[slot] <= qMaxX && maxX[slot] >= qMinX &&
+			   inWindow(minX[slot], minY[slot], maxX[slot], maxY[slot]);
+	}
+
+	/**
+	 * Adds the slot to the large list if it's tall enough, otherwise accounts for its height in maxHeight.
+	 */
+	private void classify(int slot) {
+		float height = maxY[slot] - minY[slot];
+
+		if (height > LARGE_HEIGHT) {
+			if (!isLarge[slot]) {
+				large.add(slot);
+				isLarge[slot] = true;
+			}
+		} else {
+			maxHeight = Math.max(maxHeight, height);
+		}
+	}
+
+	private boolean inWindow(float minX, float minY, float maxX, float maxY) {
+		return maxX >= windowMinX && minX <= windowMaxX && maxY >= windowMinY && minY <= windowMaxY;
+	}
+
+	/**
+	 * @return the index of the first active slot whose minY is not lower than value.
+	 */
+	private int lowerBound(float value) {
+		int low = 0;
+		int high = size;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+
+			if (minY[order[mid]] < value)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		return low;
+	}
+
+	private void copyBounds(int slot) {
+		minX[slot] = bounds.getMinX(slot);
+		minY[slot] = bounds.getMinY(slot);
+		maxX[slot] = bounds.getMaxX(slot);
+		maxY[slot] = bounds.getMaxY(slot);
+	}
+
+	private float[] grow(float[] array, int length) {
+		float[] newArray = new float[length];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+}
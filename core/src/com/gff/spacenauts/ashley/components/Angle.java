@@ -5,7 +5,7 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Pool.Poolable;
 
 /**
- * An entity's orientation, in radians.
+ * An entity's orientation, in radians. Like {@link Position}, the value at the beginning of the last physics step is kept as well.
  * 
  * @author Alessio Cali'
  *
@@ -13,14 +13,42 @@ import com.badlogic.gdx.utils.Pool.Poolable;
 public class Angle implements Component, Poolable {
 	
 	public float value = 0;
+	public float previous = 0;
+	public boolean hasPrevious = false;
 	
 	public float getAngleDegrees(){
 		return value / MathUtils.PI * 180;
 	}
+	
+	public void savePrevious(){
+		previous = value;
+		hasPrevious = true;
+	}
+	
+	/**
+	 * Angles aren't kept in any range, and AI states may set them outright, so the turn is taken along the shortest arc.
+	 * The result may then differ from {@link #getAngleDegrees()} by whole turns.
+	 * 
+	 * @param alpha
+	 * @return the angle in degrees, alpha of the way between the previous and the current step.
+	 */
+	public float getInterpolatedDegrees(float alpha){
+		if (!hasPrevious)
+			return getAngleDegrees();
+		
+		float delta = (value - previous) % MathUtils.PI2;
+		
+		if (delta >= MathUtils.PI) delta -= MathUtils.PI2;
+		else if (delta < -MathUtils.PI) delta += MathUtils.PI2;
+		
+		return (previous + delta * alpha) / MathUtils.PI * 180;
+	}
 
 	@Override
 	public void reset() {
 		value = 0;
+		previous = 0;
+		hasPrevious = false;
 	}
 
 }
@@ -6,7 +6,8 @@ import com.gff.spacenauts.listeners.death.DeathListeners;
 
 /**
  * An array of {@link com.gff.spacenauts.listeners.DeathListener DeathListener}s 
- * to activate on the entity's death.
+ * to activate on the entity's death.<br>
+ * Listeners can be shared with other entities through {@link #shareListeners(DeathListeners)}.
  * 
  * @author Alessio Cali'
  *
@@ -14,9 +15,21 @@ import com.gff.spacenauts.listeners.death.DeathListeners;
 public class Death implements Component, Poolable {
 	
 	public DeathListeners listeners = new DeathListeners();
+	private DeathListeners ownListeners = listeners;
+	
+	/**
+	 * Makes this component use the given listeners instead of its own, without copying them. Shared listeners must not be modified
+	 * through this component, and are left untouched when it's reset.
+	 * 
+	 * @param shared
+	 */
+	public void shareListeners(DeathListeners shared) {
+		listeners = shared;
+	}
 
 	@Override
 	public void reset() {
+		listeners = ownListeners;
 		listeners.clear();
 	}
 
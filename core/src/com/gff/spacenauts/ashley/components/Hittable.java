@@ -9,7 +9,8 @@ import com.gff.spacenauts.listeners.hit.HitListeners;
 /**
  * An array of {@link com.gff.spacenauts.listeners.HitListener HitListener}s 
  * to be called when the entity is hit, the entity's health and a list of entities
- * who are colliding with the owner of this component.
+ * who are colliding with the owner of this component.<br>
+ * Listeners can be shared with other entities through {@link #shareListeners(HitListeners)}.
  * 
  * @author Alessio Cali'
  *
@@ -20,6 +21,17 @@ public class Hittable implements Component, Poolable {
 	public float maxHealth = 0;
 	public HitListeners listeners = new HitListeners();
 	public Array<Entity> colliders = new Array<Entity>();
+	private HitListeners ownListeners = listeners;
+	
+	/**
+	 * Makes this component use the given listeners instead of its own, without copying them. Shared listeners must not be modified
+	 * through this component, and are left untouched when it's reset.
+	 * 
+	 * @param shared
+	 */
+	public void shareListeners(HitListeners shared) {
+		listeners = shared;
+	}
 	
 	public float getHealthPercent () {
 		return health/maxHealth;
@@ -29,6 +41,7 @@ public class Hittable implements Component, Poolable {
 	public void reset(){
 		health = 0;
 		maxHealth = 0;
+		listeners = ownListeners;
 		listeners.clear();
 		colliders.clear();
 	}
@@ -4,7 +4,8 @@ import com.badlogic.ashley.core.Component;
 import com.badlogic.gdx.utils.Pool.Poolable;
 
 /**
- * Added when the entity becomes immune to damage.
+ * Added when the entity becomes immune to damage. The {@link com.gff.spacenauts.ashley.systems.ImmunitySystem ImmunitySystem}
+ * takes it off once its duration is over.
  * 
  * @author Alessio Cali'
  *
@@ -12,12 +13,10 @@ import com.badlogic.gdx.utils.Pool.Poolable;
 public class Immunity implements Component, Poolable {
 
 	public float duration = 0.5f;
-	public float timer = 0;
 	
 	@Override
 	public void reset(){
 		duration = 0.25f;
-		timer = 0;
 	}
 	
 }
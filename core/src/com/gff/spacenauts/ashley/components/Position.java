@@ -5,7 +5,8 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Pool.Poolable;
 
 /**
- * The entity's position in world space.
+ * The entity's position in world space. The position at the beginning of the last physics step is kept as well,
+ * so that rendering can interpolate between the two.
  * 
  * @author Alessio Cali'
  *
@@ -13,10 +14,34 @@ import com.badlogic.gdx.utils.Pool.Poolable;
 public class Position implements Component, Poolable {
 	
 	public Vector2 value = new Vector2(0,0);
+	public Vector2 previous = new Vector2(0,0);
+	public boolean hasPrevious = false;
+	
+	public void savePrevious(){
+		previous.set(value);
+		hasPrevious = true;
+	}
+	
+	/**
+	 * Writes the position the entity is at, alpha of the way between the previous and the current step.
+	 * Entities that never went through a physics step are always at their current position.
+	 * 
+	 * @param alpha
+	 * @param out
+	 * @return out
+	 */
+	public Vector2 getInterpolated(float alpha, Vector2 out){
+		if (!hasPrevious)
+			return out.set(value);
+		
+		return out.set(previous).lerp(value, alpha);
+	}
 	
 	@Override
 	public void reset(){
 		value.set(0,0);
+		previous.set(0,0);
+		hasPrevious = false;
 	}
 
 }
@@ -6,8 +6,9 @@ import com.badlogic.gdx.utils.Pool.Poolable;
 import com.gff.spacenauts.listeners.TimerListener;
 
 /**
- * A list of {@link TimerListener}s owned by the entity.
- * 
+ * A list of {@link TimerListener}s owned by the entity. Once the entity is in the engine, new listeners should be added through
+ * {@link com.gff.spacenauts.ashley.systems.TimerSystem#schedule(com.badlogic.ashley.core.Entity, TimerListener) TimerSystem.schedule}.
+ *
  * @author Alessio Cali'
  *
  */
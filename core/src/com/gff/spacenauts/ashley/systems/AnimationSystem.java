@@ -0,0 +1,46 @@
+package com.gff.spacenauts.ashley.systems;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Animation.PlayMode;
+import com.gff.spacenauts.ashley.Families;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.components.Render;
+import com.gff.spacenauts.listeners.AnimationListener;
+
+/**
+ * Plays the animations of all {@link Render} components and calls their {@link AnimationListener}s when they start and end.
+ * The {@link RenderingSystem} only draws the current key frame, so animations, and whatever their listeners do like removing
+ * an explosion once it's over, go on the same way in headless runs.
+ * 
+ * @author Alessio Cali'
+ *
+ */
+public class AnimationSystem extends IteratingSystem {
+
+	public AnimationSystem() {
+		super(Families.ANIMATION_FAMILY);
+	}
+
+	@Override
+	protected void processEntity(Entity entity, float deltaTime) {
+		Render render = Mappers.rm.get(entity);
+		Animation animation = render.animation;
+
+		if (animation == null) return;
+
+		//The animation just started, call all onStart methods.
+		if (render.animationTimer == 0)
+			for (AnimationListener listener : render.listeners) listener.onStart(entity, animation);
+
+		render.animationTimer += deltaTime;
+
+		//The animation finished, call all onEnd methods.
+		if (animation.isAnimationFinished(render.animationTimer) && (animation.getPlayMode() == PlayMode.NORMAL || animation.getPlayMode() == PlayMode.REVERSED)) {
+			for (AnimationListener listener : render.listeners) listener.onEnd(entity, animation);
+			render.animationTimer = 0;
+			render.animation = null;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.gff.spacenauts.ashley.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.gdx.math.Vector2;
+import com.gff.spacenauts.ashley.components.Angle;
+import com.gff.spacenauts.ashley.components.AngularVelocity;
+import com.gff.spacenauts.ashley.components.Body;
+import com.gff.spacenauts.ashley.components.Position;
+import com.gff.spacenauts.ashley.components.Velocity;
+
+/**
+ * <p>
+ * A {@link MovementSystem} that moves all entities in one loop over a {@link KinematicCache}, instead of going through
+ * the engine's entity array and looking each component up at every step. Bodies are synced only for the entities that have one,
+ * and the player is handled the same way as in MovementSystem.
+ * </p>
+ *
+ * <p>
+ * Enabled by the "batchedMovement" preference. Like MovementSystem, it should be wrapped inside a {@link PhysicsSystem}.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class BatchedMovementSystem extends MovementSystem {
+
+	private KinematicCache cache = new KinematicCache();
+
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		cache.attach(engine);
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		cache.detach(engine);
+	}
+
+	@Override
+	public void update(float delta) {
+		int size = cache.size();
+		Position[] positions = cache.getPositions();
+		Velocity[] velocities = cache.getVelocities();
+		Angle[] angles = cache.getAngles();
+		AngularVelocity[] angularVelocities = cache.getAngularVelocities();
+		Body[] bodies = cache.getBodies();
+		boolean[] players = cache.getPlayers();
+
+		for (int i = 0 ; i < size ; i++) {
+			Vector2 pos = positions[i].value;
+			Vector2 vel = velocities[i].value;
+			Angle ang = angles[i];
+
+			pos.x += vel.x * delta;
+			pos.y += vel.y * delta;
+			if (angularVelocities[i] != null) ang.value += angularVelocities[i].value * delta;
+
+			Body body = bodies[i];
+
+			if (body != null) {
+				body.polygon.setPosition(pos.x, pos.y);
+				body.polygon.setRotation(ang.getAngleDegrees());
+			}
+
+			if (players[i])
+				updatePlayer(positions[i], ang);
+		}
+	}
+
+	public KinematicCache getCache() {
+		return cache;
+	}
+}
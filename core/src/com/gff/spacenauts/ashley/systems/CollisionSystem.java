@@ -1,377 +1,921 @@
 package com.gff.spacenauts.ashley.systems;
 
+import java.util.Arrays;
+
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
 import com.badlogic.ashley.core.EntitySystem;
 import com.badlogic.ashley.core.Family;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.gff.spacenauts.Geometry;
 import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.Spacenauts;
 import com.gff.spacenauts.ashley.Families;
+import com.gff.spacenauts.ashley.FrameProfiler;
 import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.collision.BoundsCache;
+import com.gff.spacenauts.ashley.collision.BroadPhase;
+import com.gff.spacenauts.ashley.collision.CollisionLayers;
+import com.gff.spacenauts.ashley.collision.CompactHashGrid;
+import com.gff.spacenauts.ashley.collision.HashGrid;
+import com.gff.spacenauts.ashley.collision.IncrementalHashGrid;
+import com.gff.spacenauts.ashley.collision.ParallelRunner;
+import com.gff.spacenauts.ashley.collision.StaticIndex;
+import com.gff.spacenauts.ashley.collision.SweepAndPrune;
 import com.gff.spacenauts.ashley.components.Body;
 import com.gff.spacenauts.ashley.components.Hittable;
 import com.gff.spacenauts.screens.GameScreen;
 
 /**
  * <p>
- * A rather convoluted, broad-to-narrow phase collision system. It puts every collidable objects inside a hash grid, then checks against collisions
- * for objects in the same cell. The broad phase mechanism is code borrowed from Beginning Android Games, Second Edition.
+ * A rather convoluted, broad-to-narrow phase collision system. A {@link BroadPhase} keeps track of which colliders are close to each other,
+ * then each collider is checked against the ones it is close to (narrow phase).
+ * </p>
+ *
+ * <p>
+ * The system listens to the engine for entities entering and leaving {@link Families#COLLIDERS_FAMILY}. Each collider is given a slot,
+ * a small integer which the broad phase uses as a key, and which is released as soon as the entity is removed.
+ * </p>
+ *
+ * <p>
+ * Duplicates are filtered through epoch stamps rather than list lookups: every query bumps a counter, and a slot is accepted
+ * only if its stamp doesn't already match the current counter. The same trick keeps {@link Hittable#colliders} free of duplicates
+ * across physics steps. No list is ever scanned to check for membership, and nothing is allocated once the buffers reach their peak size.
+ * </p>
+ *
+ * <p>
+ * Each slot also stores the collider's {@link CollisionLayers} category and mask, computed once when the entity is added.
+ * Pairs whose layers don't match are dropped right after the broad phase, before the bounding rectangles are tested.
+ * </p>
+ *
+ * <p>
+ * Colliders that can't move, that is obstacles with no {@link com.gff.spacenauts.ashley.components.Velocity Velocity}, are kept out of the broad phase and stored in a {@link StaticIndex}
+ * instead, which is built once per level. Moving colliders query both structures. Static colliders are never iterated themselves:
+ * whenever a moving collider hits one, it is also registered as the static collider's collider if its layers allow it,
+ * so their hit listeners still run as before.
+ * </p>
+ *
+ * <p>
+ * The bounding rectangles of all colliders are computed once per step, right after movement, and stored in a {@link BoundsCache}
+ * that both the broad phase and the narrow phase read from.
  * </p>
- * 
+ *
+ * <p>
+ * Bullets are tested continuously: each bullet is treated as the segment going from its position at the previous step to its
+ * current one, and that segment is tested against the bodies around it. A fast bullet can't skip past a thin body this way,
+ * so the physics step doesn't need to be as short as the time a bullet takes to cross one. Like static colliders, bullets handle
+ * both directions of their collisions, so they're skipped when met from the other side.
+ * </p>
+ *
  * <p>
- * In short, the world is divided into square cells each of a fixed size. An array of lists is then instantiated, one for each cell. These lists
- * contain a reference to all entities that have part of their bodies within the respective cell. At each step, these lists are updated accordingly
- * (broad phase), then entities within the same cell are checked for collision (narrow phase).
+ * The narrow phase only reads the colliders' data and writes the pairs it finds to its own buffers, so it can be split among
+ * several threads through a {@link ParallelRunner}. Hits are registered afterwards on the calling thread, in the same order
+ * whatever the number of threads, so gameplay stays reproducible.
  * </p>
- * 
+ *
+ * <p>
+ * Other systems can look up colliders by area, by distance or along a segment through {@link #queryArea(float, float, float, float, Family, Array) queryArea},
+ * {@link #queryRadius(float, float, float, Family, Array) queryRadius} and {@link #querySegment(float, float, float, float, Family, Array) querySegment}.
+ * Results are written to a buffer owned by the caller and nothing is allocated.
+ * </p>
+ *
  * <p>
  * To avoid time aliasing this should be wrapped inside a {@link PhysicsSystem}.
  * </p>
- * 
+ *
  * <h1>The collision window</h1>
  * <p>
- * To improve performance, the algorithm has been modified a bit. First, the hash grid only covers enough space to fit the camera's viewport, 
- * plus a tolerance amount; this space is called the collision window, which is a rectangle centered on the current camera position. 
- * The total hash grid dimension is given by:
+ * To improve performance, broad phases only consider a rectangle centered on the current camera position, large enough to fit the camera's viewport
+ * plus a tolerance amount. This space is called the collision window and its dimensions are given by:
  * </p>
- * 
+ *
  * <div>
  * <code>collisionWidth = TARGET_CAMERA_WIDTH * ( 1 + TOLERANCE_RATIO )</code><br>
  * <code>collisionHeight = TARGET_CAMERA_HEIGHT * ( 1 + TOLERANCE_RATIO )</code>
  * </div>
- * 
+ *
  * <p>
- * For the algorithm to work the entities must have positive coordinates not higher than (collisionWidth, collisionHeight).
- * Because of that, we must translate all entities to a new space whose origin is the lower left corner of the collision window.
- * If the camera has world coordinates (xC, yC), the new origin will have world coordinates (xC - collisionWidth / 2, yC - collisionHeight / 2).
- * Given this offset we can find the entities' coordinates inside the collision space by calculating pos' = pos - offset.
- * All entities outside the collision window will automatically be ignored, ensuring the computation is limited to nearby entities.
+ * All entities outside the collision window are ignored, ensuring the computation is limited to nearby entities.
+ * See {@link HashGrid} for details.
  * </p>
- *  
+ *
  * @author Alessio Cali'
- * @see <b>Mario Zechner</b> and <b>Robert Green</b>, <a href="http://www.apress.com/9781430246770"><i>Beginning Android Games, Second Edition</i></a> (Apress, 2012), 391-398.
  *
  */
-public class CollisionSystem extends EntitySystem {
-	
+public class CollisionSystem extends EntitySystem implements EntityListener {
+
 	private static final float REGULAR_CELL_SIZE = 8f;
 	private static final float BOSS_CELL_SIZE = 15f;
-	
+
 	private static final float TOLERANCE_RATIO = 0f;
 
+	//Below this many slots per thread, splitting the narrow phase costs more than it saves.
+	private static final int MIN_SLOTS_PER_WORKER = 64;
+
+	//Keys of each phase's part in the FrameProfiler, summed over all substeps of a frame.
+	private static final String PROFILE_BROAD_PHASE = "CollisionSystem/broad phase";
+	private static final String PROFILE_NARROW_PHASE = "CollisionSystem/narrow phase";
+	private static final String PROFILE_RESPONSE = "CollisionSystem/response";
+
 	private float cellSize = REGULAR_CELL_SIZE;
-	private int cellsNumber;
-	private int cellsPerCol;
-	private int cellsPerRow;
-	
-	//private float levelWidth, levelHeight;
 	private float collisionWidth, collisionHeight;
-	private Vector2 offset;
-	private boolean dirty = false;
 
-	private Array<Entity>[] collidableCells;
+	private BroadPhase.Type broadPhaseType;
+	private BroadPhase broadPhase;
+	private ObjectIntMap<Entity> slots;
+	private Array<Entity> slotEntities;
+	private IntArray freeSlots;
 	private Array<Entity> potentialColliders;
-	private Array<Entity> collidersList;
-	private int[] cellIdsBuffer = new int[4];
+
+	//Hit stamps, indexed by slot. Query stamps are kept by each Worker.
+	private int[] hitStamps = new int[64];
+	private int[] reverseStamps = new int[64];
+	private int hitEpoch = 0;
+
+	//Colliders each slot was registered to in reverse, as pairs of collider slot and index in the collider's list.
+	private Array<IntArray> reverseHits = new Array<IntArray>();
+
+	//Collision layers, indexed by slot.
+	private int[] categories = new int[64];
+	private int[] masks = new int[64];
+
+	private StaticIndex staticIndex;
+	private boolean[] statics = new boolean[64];
+	private float windowMinX, windowMinY, windowMaxX, windowMaxY;
+	private Rectangle pointBounds = new Rectangle();
+	private BoundsCache bounds;
+
+	//Swept bullets and their position at the previous step, indexed by slot.
+	private boolean[] swept = new boolean[64];
+	private float[] previousX = new float[64];
+	private float[] previousY = new float[64];
+
+	//Entry points of the colliders found by querySegment, sorted like its results.
+	private FloatArray segmentHits = new FloatArray();
+
+	//Narrow phase threads. The main worker is always the first one.
+	private ParallelRunner runner;
+	private Worker mainWorker;
+	private Array<Worker> workers;
+	private int slotsNumber, workersNumber;
+
+	private FrameProfiler.LapTimer laps = new FrameProfiler.LapTimer(Spacenauts.getProfiler());
+	private ParallelRunner.Task narrowPhaseTask = new ParallelRunner.Task() {
+		@Override
+		public void run(int index) {
+			findPairs(workers.get(index), index * slotsNumber / workersNumber, (index + 1) * slotsNumber / workersNumber);
+		}
+	};
+
+	/**
+	 * Inits the system with the default {@link BroadPhase.Type#REBUILD REBUILD} broad phase.
+	 */
+	public CollisionSystem() {
+		this(BroadPhase.Type.REBUILD);
+	}
 
 	/**
-	 * Inits the spatial grid based on the TOLERANCE_RATIO and the {@link #cellSize}.
-	 * 
+	 * Inits the system with the given broad phase.
+	 *
+	 * @param broadPhaseType the broad phase to use. Null for the default one.
 	 */
-	@SuppressWarnings("unchecked")
-	public CollisionSystem(){
+	public CollisionSystem(BroadPhase.Type broadPhaseType){
 		collisionWidth = Globals.TARGET_CAMERA_WIDTH * (1 + TOLERANCE_RATIO);
 		collisionHeight = Globals.TARGET_CAMERA_HEIGHT * (1 + TOLERANCE_RATIO);
-		cellsPerRow = (int)Math.ceil(collisionWidth / cellSize);
-		cellsPerCol = (int)Math.ceil(collisionHeight / cellSize);
-		cellsNumber = cellsPerRow * cellsPerCol;
-		offset = new Vector2();
 
-		collidableCells = new Array[cellsNumber];
-		collidersList = new Array<Entity>();
+		slots = new ObjectIntMap<Entity>();
+		slotEntities = new Array<Entity>();
+		freeSlots = new IntArray();
 		potentialColliders = new Array<Entity>(10);
+		mainWorker = new Worker();
+		workers = new Array<Worker>();
+		workers.add(mainWorker);
+		bounds = new BoundsCache();
+		staticIndex = new StaticIndex(bounds);
+		windowMinX = windowMinY = Float.NEGATIVE_INFINITY;
+		windowMaxX = windowMaxY = Float.POSITIVE_INFINITY;
+
+		setBroadPhase(broadPhaseType);
+	}
+
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		engine.addEntityListener(Families.COLLIDERS_FAMILY, this);
+
+		for (Entity entity : engine.getEntitiesFor(Families.COLLIDERS_FAMILY))
+			entityAdded(entity);
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(this);
+
+		for (int slot = 0 ; slot < slotEntities.size ; slot++) {
+			if (slotEntities.get(slot) != null && !statics[slot])
+				broadPhase.remove(slot);
+		}
+
+		staticIndex.clear();
+		slots.clear();
+		slotEntities.clear();
+		reverseHits.clear();
+		freeSlots.clear();
+	}
+
+	/**
+	 * Assigns a slot to the new collider, reusing a free one if possible.
+	 */
+	@Override
+	public void entityAdded(Entity entity) {
+		if (slots.containsKey(entity)) return;
+
+		int slot;
+
+		if (freeSlots.size > 0) {
+			slot = freeSlots.pop();
+			slotEntities.set(slot, entity);
+		} else {
+			slot = slotEntities.size;
+			slotEntities.add(entity);
+			reverseHits.add(null);
+
+			if (slot >= hitStamps.length) {
+				hitStamps = grow(hitStamps);
+				reverseStamps = grow(reverseStamps);
+				categories = grow(categories);
+				masks = grow(masks);
+
+				statics = grow(statics);
+				swept = grow(swept);
+				previousX = grow(previousX);
+				previousY = grow(previousY);
+			}
+		}
+
+		hitStamps[slot] = 0;
+		reverseStamps[slot] = 0;
+		if (reverseHits.get(slot) != null) reverseHits.get(slot).clear();
+		categories[slot] = CollisionLayers.getCategory(entity);
+		masks[slot] = CollisionLayers.getMask(entity);
+
+		statics[slot] = isStatic(entity);
+		swept[slot] = isSwept(entity);
+		bounds.set(slot, entity);
+
+		if (swept[slot]) {
+			Vector2 pos = Mappers.pm.get(entity).value;
+			previousX[slot] = pos.x;
+			previousY[slot] = pos.y;
+		}
+
+		slots.put(entity, slot);
+
+		if (statics[slot])
+			staticIndex.insert(slot, entity);
+		else
+			broadPhase.insert(slot, entity);
+	}
+
+	/**
+	 * Releases the collider's slot.
+	 */
+	@Override
+	public void entityRemoved(Entity entity) {
+		int slot = slots.remove(entity, -1);
+
+		if (slot == -1) return;
+
+		if (statics[slot])
+			staticIndex.remove(slot);
+		else
+			broadPhase.remove(slot);
+
+		slotEntities.set(slot, null);
+		freeSlots.add(slot);
+	}
+
+	/**
+	 * Switches to a new broad phase. All current colliders are handed over to it.
+	 *
+	 * @param broadPhaseType the broad phase to use. Null for the default one.
+	 */
+	public void setBroadPhase(BroadPhase.Type broadPhaseType) {
+		if (broadPhaseType == null) broadPhaseType = BroadPhase.Type.REBUILD;
+
+		this.broadPhaseType = broadPhaseType;
+
+		switch (broadPhaseType) {
+		case INCREMENTAL:
+			broadPhase = new IncrementalHashGrid(collisionWidth, collisionHeight, cellSize, bounds);
+			break;
+
+		case COMPACT:
+			broadPhase = new CompactHashGrid(collisionWidth, collisionHeight, cellSize, bounds);
+			break;
+
+		case SAP:
+			broadPhase = new SweepAndPrune(collisionWidth, collisionHeight, bounds);
+			break;
+
+		case REBUILD:
+		default:
+			broadPhase = new HashGrid(collisionWidth, collisionHeight, cellSize, bounds);
+			break;
+		}
 
-		for (int i = 0 ; i < cellsNumber ; i++)
-			collidableCells[i] = new Array<Entity>(10);
+		for (int slot = 0 ; slot < slotEntities.size ; slot++) {
+			Entity entity = slotEntities.get(slot);
+
+			if (entity != null && !statics[slot])
+				broadPhase.insert(slot, entity);
+		}
+	}
+
+	public BroadPhase.Type getBroadPhase() {
+		return broadPhaseType;
+	}
+
+	/**
+	 * Sets the runner the narrow phase is split with. With a null runner, or too few colliders around, the narrow phase
+	 * runs on the calling thread. Hits are the same and come in the same order either way.
+	 *
+	 * @param runner the runner to use, null to stay single threaded.
+	 */
+	public void setParallelRunner(ParallelRunner runner) {
+		this.runner = runner;
+	}
+
+	public ParallelRunner getParallelRunner() {
+		return runner;
 	}
 
 	/**
-	 * First, the cells and the colliders list are updated. Then each entity within collidersList is tested against its 
+	 * First, the broad phase is updated. Then each collider is tested against its
 	 * potential colliders. Collisions only happen point-to-body ( {@link Rectangle#contains(float, float)} ) or
-	 * body-to-body ( {@link Rectangle#overlaps(Rectangle)} ). When collision happens {@link #performCollision(Entity, Entity)}
-	 * is invoked.
-	 * 
+	 * body-to-body ( {@link Rectangle#overlaps(Rectangle)} ). Static colliders are skipped, as they're reached from the moving ones,
+	 * while swept bullets go through {@link #sweep(Worker, int)}.
+	 *
+	 * <p>
+	 * Testing only collects pairs of slots, and may be split among several threads by a {@link ParallelRunner}, each thread taking
+	 * a contiguous range of slots. Pairs are then handed to {@link #performCollision(int, Hittable, Entity, int)} on this thread,
+	 * range after range, which is the same order a single thread would find them in.
+	 * </p>
+	 *
 	 * @see com.badlogic.ashley.core.EntitySystem#update(float)
 	 */
 	@Override
 	public void update(float delta){
-		if (GameScreen.getEngine().getBoss() != null && cellSize != BOSS_CELL_SIZE) 
+		if (GameScreen.getEngine().getBoss() != null && cellSize != BOSS_CELL_SIZE)
 			resizeCells(BOSS_CELL_SIZE);
-		
-		if (dirty) resizeCellsInternal();
-		
-		refreshCells();
 
-		for (Entity entity : collidersList){
-			Body entityBody = Mappers.bm.get(entity);
+		Vector2 cameraPosition = GameScreen.getEngine().getCameraPosition();
+		windowMinX = cameraPosition.x - collisionWidth / 2;
+		windowMinY = cameraPosition.y - collisionHeight / 2;
+		windowMaxX = cameraPosition.x + collisionWidth / 2;
+		windowMaxY = cameraPosition.y + collisionHeight / 2;
+
+		laps.start();
+
+		for (int slot = 0 ; slot < slotEntities.size ; slot++) {
+			Entity entity = slotEntities.get(slot);
+
+			if (entity != null && !statics[slot])
+				bounds.set(slot, entity);
+		}
+
+		broadPhase.update(cameraPosition);
+		staticIndex.update();
+		laps.lap(PROFILE_BROAD_PHASE);
+
+		slotsNumber = slotEntities.size;
+		workersNumber = runner != null ? Math.min(runner.getParallelism(), slotsNumber / MIN_SLOTS_PER_WORKER) : 1;
 
-			potentialColliders = getPotentialColliders(entity, null);
+		if (workersNumber > 1) {
+			while (workers.size < workersNumber)
+				workers.add(new Worker());
+
+			runner.run(narrowPhaseTask, workersNumber);
+			laps.lap(PROFILE_NARROW_PHASE);
+
+			for (int i = 0 ; i < workersNumber ; i++)
+				applyPairs(workers.get(i).pairs);
+		} else {
+			findPairs(mainWorker, 0, slotsNumber);
+			laps.lap(PROFILE_NARROW_PHASE);
+			applyPairs(mainWorker.pairs);
+		}
+
+		laps.lap(PROFILE_RESPONSE);
+
+		for (int slot = 0 ; slot < slotEntities.size ; slot++) {
+			if (swept[slot] && slotEntities.get(slot) != null) {
+				Vector2 pos = Mappers.pm.get(slotEntities.get(slot)).value;
+				previousX[slot] = pos.x;
+				previousY[slot] = pos.y;
+			}
+		}
+	}
+
+	/**
+	 * Tests all colliders in the given range of slots and adds the colliding pairs to the worker's buffer.
+	 * Nothing but the worker is written to, so several ranges can be tested at once.
+	 *
+	 * @param worker
+	 * @param from the first slot, inclusive.
+	 * @param to the last slot, exclusive.
+	 */
+	private void findPairs(Worker worker, int from, int to) {
+		worker.pairs.clear();
+
+		for (int slot = from ; slot < to ; slot++){
+			Entity entity = slotEntities.get(slot);
+
+			if (entity == null || statics[slot]) continue;
+
+			if (swept[slot]) {
+				sweep(worker, slot);
+				continue;
+			}
+
+			boolean entityPoint = bounds.isPoint(slot);
+			float entityX = bounds.getMinX(slot);
+			float entityY = bounds.getMinY(slot);
+
+			gatherColliders(worker, entity, null, masks[slot], CollisionLayers.NONE, !entityPoint,
+							entityX, entityY, bounds.getMaxX(slot), bounds.getMaxY(slot));
 
 			// WITH BOUNDING RECTANGLES
-			for (Entity collider : potentialColliders){
-				Body colliderBody = Mappers.bm.get(collider);
-				
-				if (entityBody == null) {
+			for (int i = 0 ; i < worker.candidates.size ; i++){
+				int colliderSlot = worker.candidates.get(i);
+
+				if (entityPoint) {
 					//Point-Body
-					Vector2 entityPos = Mappers.pm.get(entity).value;
-					
-					if (colliderBody.polygon.getBoundingRectangle().contains(entityPos.x, entityPos.y))
-						performCollision(entity, collider);
-					
-				} else if (colliderBody == null) {
-					//Body-Point
-					Vector2 colliderPos = Mappers.pm.get(collider).value;
-					
-					if (entityBody.polygon.getBoundingRectangle().contains(colliderPos.x, colliderPos.y))
-						performCollision(entity, collider);
-					
-				} else if (entityBody.polygon.getBoundingRectangle().overlaps(colliderBody.polygon.getBoundingRectangle())) {
-					performCollision(entity, collider);
+					if (bounds.contains(colliderSlot, entityX, entityY))
+						addPair(worker, slot, colliderSlot);
+
+				} else if (bounds.isPoint(colliderSlot)) {
+					//Body-Point. Swept bullets take care of this themselves.
+					if (swept[colliderSlot]) continue;
+
+					if (bounds.contains(slot, bounds.getMinX(colliderSlot), bounds.getMinY(colliderSlot)))
+						addPair(worker, slot, colliderSlot);
+
+				} else if (bounds.overlaps(slot, colliderSlot)) {
+					addPair(worker, slot, colliderSlot);
 				}
-				
+
 				/*
 				 * INTERSECTOR VARIANT
-				 * 
+				 *
 				if (entityBody == null) {
 					//Point-Body
 					Vector2 entityPos = Mappers.pm.get(entity).value;
-					
+
 					if (colliderBody.polygon.contains(entityPos.x, entityPos.y))
-						performCollision(entity, collider);
-					
+						performCollision(slot, entityHittable, collider, colliderSlot);
+
 				} else if (colliderBody == null) {
-					//Body-Point
+					//Body-Point. Swept bullets take care of this themselves.
+					if (swept[colliderSlot]) continue;
+
 					Vector2 colliderPos = Mappers.pm.get(collider).value;
-					
+
 					if (entityBody.polygon.contains(colliderPos.x, colliderPos.y))
-						performCollision(entity, collider);
-					
+						performCollision(slot, entityHittable, collider, colliderSlot);
+
 				} else if (Intersector.overlapConvexPolygons(entityBody.polygon, colliderBody.polygon))
 					//Body-Body
-					performCollision(entity, collider);
+					performCollision(slot, entityHittable, collider, colliderSlot);
 				}
-				*/	
+				*/
+			}
+		}
+	}
+
+	/**
+	 * Tests a bullet's path since the last step against the bounding rectangles of all bodies around it.
+	 *
+	 * @param worker
+	 * @param slot the bullet's slot.
+	 */
+	private void sweep(Worker worker, int slot) {
+		float x0 = previousX[slot];
+		float y0 = previousY[slot];
+		float x1 = bounds.getMinX(slot);
+		float y1 = bounds.getMinY(slot);
+
+		gatherColliders(worker, slotEntities.get(slot), null, masks[slot], categories[slot], false,
+						Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1));
+
+		for (int i = 0 ; i < worker.candidates.size ; i++) {
+			int colliderSlot = worker.candidates.get(i);
+
+			if (bounds.isPoint(colliderSlot)) continue;
+
+			if (Geometry.intersectSegmentRectangle(x0, y0, x1, y1, bounds.getMinX(colliderSlot), bounds.getMinY(colliderSlot),
+												   bounds.getMaxX(colliderSlot), bounds.getMaxY(colliderSlot)) >= 0)
+				addPair(worker, slot, colliderSlot);
+		}
+	}
+
+	private void addPair(Worker worker, int entitySlot, int colliderSlot) {
+		worker.pairs.add(entitySlot);
+		worker.pairs.add(colliderSlot);
+	}
+
+	/**
+	 * Registers all pairs found by a worker. Pairs of the same entity are always next to each other.
+	 *
+	 * @param pairs
+	 */
+	private void applyPairs(IntArray pairs) {
+		int lastSlot = -1;
+		Hittable entityHittable = null;
+
+		for (int i = 0 ; i < pairs.size ; i += 2) {
+			int entitySlot = pairs.get(i);
+			int colliderSlot = pairs.get(i + 1);
+
+			if (entitySlot != lastSlot) {
+				lastSlot = entitySlot;
+				entityHittable = Mappers.hm.get(slotEntities.get(entitySlot));
+				markColliders(entitySlot, entityHittable);
 			}
+
+			performCollision(entitySlot, entityHittable, slotEntities.get(colliderSlot), colliderSlot);
 		}
 	}
-	
+
 	/**
 	 * Adds collider to the entity's colliders list. HitListeners
 	 * will later be called from a {@link HitSystem}.
-	 * 
-	 * @param entity
+	 *
+	 * If the collider is static or the entity is a swept bullet, the entity is added to the collider's colliders list as well.
+	 * Each direction only happens if the respective layers allow it.
+	 *
+	 * @param entitySlot the entity's slot.
+	 * @param entityHittable the entity's Hittable, already marked by {@link #markColliders(int, Hittable)}.
 	 * @param collider
+	 * @param colliderSlot the collider's slot.
 	 */
-	private void performCollision(Entity entity, Entity collider) {
-		Hittable entityHittable = Mappers.hm.get(entity);
-		
-		if (!entityHittable.colliders.contains(collider, true))
+	private void performCollision(int entitySlot, Hittable entityHittable, Entity collider, int colliderSlot) {
+		if (canHit(entitySlot, colliderSlot) && hitStamps[colliderSlot] != hitEpoch) {
+			hitStamps[colliderSlot] = hitEpoch;
 			entityHittable.colliders.add(collider);
+		}
+
+		if ((statics[colliderSlot] || swept[entitySlot]) && canHit(colliderSlot, entitySlot) && reverseStamps[colliderSlot] != hitEpoch) {
+			Hittable colliderHittable = Mappers.hm.get(collider);
+			IntArray hits = reverseHits.get(entitySlot);
+
+			if (hits == null) {
+				hits = new IntArray();
+				reverseHits.set(entitySlot, hits);
+			}
+
+			reverseStamps[colliderSlot] = hitEpoch;
+			hits.add(colliderSlot);
+			hits.add(colliderHittable.colliders.size);
+			colliderHittable.colliders.add(slotEntities.get(entitySlot));
+		}
+	}
+
+	/**
+	 * @return whether the collider in the first slot cares about the one in the second slot.
+	 */
+	private boolean canHit(int slot, int otherSlot) {
+		return masks[slot] == CollisionLayers.ALL || CollisionLayers.accepts(masks[slot], categories[otherSlot]);
 	}
 
-	private void clearCells(Array<Entity>[] cells){
-		for (int i = 0 ; i < cellsNumber ; i++)
-			cells[i].clear();
+	/**
+	 * Starts a new hit epoch and stamps all colliders the entity already registered since the last {@link HitSystem} pass,
+	 * so that {@link #performCollision(int, Hittable, Entity, int)} won't add them twice. Colliders the entity was registered to
+	 * in reverse are stamped as well, as long as the entity is still where it was put in their list: once the HitSystem clears
+	 * the list, the registration is forgotten.
+	 *
+	 * @param entitySlot
+	 * @param entityHittable
+	 */
+	private void markColliders(int entitySlot, Hittable entityHittable) {
+		if (++hitEpoch == Integer.MAX_VALUE) {
+			Arrays.fill(hitStamps, 0);
+			Arrays.fill(reverseStamps, 0);
+			hitEpoch = 1;
+		}
+
+		for (int i = 0 ; i < entityHittable.colliders.size ; i++) {
+			int slot = slots.get(entityHittable.colliders.get(i), -1);
+
+			if (slot != -1) hitStamps[slot] = hitEpoch;
+		}
+
+		IntArray hits = reverseHits.get(entitySlot);
+
+		if (hits == null) return;
+
+		Entity entity = slotEntities.get(entitySlot);
+
+		for (int i = hits.size - 2 ; i >= 0 ; i -= 2) {
+			int colliderSlot = hits.get(i);
+			int index = hits.get(i + 1);
+			Entity collider = slotEntities.get(colliderSlot);
+			Hittable colliderHittable = collider != null ? Mappers.hm.get(collider) : null;
+
+			if (colliderHittable != null && index < colliderHittable.colliders.size && colliderHittable.colliders.get(index) == entity)
+				reverseStamps[colliderSlot] = hitEpoch;
+			else
+				hits.removeRange(i, i + 1);
+		}
 	}
 
 	/**
-	 * Inserts an entity in its cells, given a cell array. Remember that each cell is represented by an {@link Array} list containing
-	 * all entities inside it. 
-	 * 
-	 * @param entity the entity to insert
-	 * @param cells the cells array
+	 * Returns all potential colliders for an entity, as reported by the broad phase.
+	 *
+	 * @param entity
+	 * @param filter the Family all colliders must match. Null for any.
+	 * @return
 	 */
-	private void insertEntityInCells(Entity entity, Array<Entity>[] cells){
-		int[] cellIds = getCellIds(entity);
+	public Array<Entity> getPotentialColliders(Entity entity, Family filter){
+		Rectangle area = getBounds(entity);
 
-		if (cellIds == null)
-			return;
+		gatherColliders(mainWorker, entity, filter, CollisionLayers.ALL, CollisionLayers.NONE, Mappers.bm.get(entity) != null,
+						area.x, area.y, area.x + area.width, area.y + area.height);
+
+		potentialColliders.clear();
 
-		int i = 0;
-		int cellId = -1;
+		for (int i = 0 ; i < mainWorker.candidates.size ; i++)
+			potentialColliders.add(slotEntities.get(mainWorker.candidates.get(i)));
 
-		while (i < 3 && (cellId = cellIds[i++]) != -1)
-			cells[cellId].add(entity);
+		return potentialColliders;
 	}
 
 	/**
-	 * Return the IDs of the cells an entity is contained in within the hash grid. 
-	 * This assumes no object is large enough to be included in more than 4 cells.
-	 * 
+	 * Fills the worker's candidates with the slots of the entity's potential colliders.
+	 *
+	 * @param worker
 	 * @param entity
-	 * @return The cells' IDs.
+	 * @param filter the Family all colliders must match. Null for any.
+	 * @param mask the {@link CollisionLayers} mask colliders' categories must match. {@link CollisionLayers#ALL} lets anything through.
+	 * @param category the entity's category. Colliders whose mask matches it are let through too. NONE to only check the mask.
+	 * @param hasBody whether the entity has a body. If not, colliders without a body are skipped.
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
 	 */
-	private int[] getCellIds(Entity entity){
-		Body body = Mappers.bm.get(entity);
+	private void gatherColliders(Worker worker, Entity entity, Family filter, int mask, int category, boolean hasBody,
+								 float minX, float minY, float maxX, float maxY) {
+		IntArray queryBuffer = worker.queryBuffer;
 
-		//Point entity, checks against position.
-		if (body == null) {
-			Vector2 pos = Mappers.pm.get(entity).value;
-			
-			//Positions are offset by the origin of the collision area. 
-			//Only viewable entities will be processed, plus a small margin.
-			
-			int x = (int)Math.floor((pos.x - offset.x)  / cellSize);
-			int y = (int)Math.floor((pos.y - offset.y) / cellSize);
-
-			if(x >= 0 && x < cellsPerRow && y >= 0 && y < cellsPerCol)
-				cellIdsBuffer[0] = x + y * cellsPerRow;
-			else
-				cellIdsBuffer[0] = -1;
-
-			cellIdsBuffer[1] = -1;
-			cellIdsBuffer[2] = -1;
-			cellIdsBuffer[3] = -1;
-		} 
-		
-		else {	
-			//Body entity, checks against the bounding rectangle.
-			Rectangle bodyBounds = body.polygon.getBoundingRectangle();
-			
-			int x1 = (int)Math.floor((bodyBounds.getX() - offset.x) / cellSize);
-			int y1 = (int)Math.floor((bodyBounds.getY() - offset.y) / cellSize);
-			int x2 = (int)Math.floor((bodyBounds.getX() - offset.x + bodyBounds.width) / cellSize);
-			int y2 = (int)Math.floor((bodyBounds.getY() - offset.y + bodyBounds.height) / cellSize);
-			
-			if(x1 == x2 && y1 == y2) {
-				if(x1 >= 0 && x1 < cellsPerRow && y1 >= 0 && y1 < cellsPerCol)
-					cellIdsBuffer[0] = x1 + y1 * cellsPerRow;
-				else
-					cellIdsBuffer[0] = -1;
-
-				cellIdsBuffer[1] = -1;
-				cellIdsBuffer[2] = -1;
-				cellIdsBuffer[3] = -1;
-
-			} else if (x1 == x2) {
-				int i = 0;
-
-				if(x1 >= 0 && x1 < cellsPerRow) {
-					if(y1 >= 0 && y1 < cellsPerCol)
-						cellIdsBuffer[i++] = x1 + y1 * cellsPerRow;
-					if(y2 >= 0 && y2 < cellsPerCol)
-						cellIdsBuffer[i++] = x1 + y2 * cellsPerRow;
-				}
+		worker.candidates.clear();
+		queryBuffer.clear();
+		broadPhase.query(minX, minY, maxX, maxY, queryBuffer);
 
-				while(i <= 3) cellIdsBuffer[i++] = -1;
+		if (staticIndex.size() > 0) {
+			if (minX <= windowMaxX && maxX >= windowMinX && minY <= windowMaxY && maxY >= windowMinY)
+				staticIndex.query(minX, minY, maxX, maxY, queryBuffer);
+		}
 
-			} else if(y1 == y2) {
-				int i = 0;
+		nextQueryEpoch(worker);
 
-				if(y1 >= 0 && y1 < cellsPerCol) {
-					if(x1 >= 0 && x1 < cellsPerRow)
-						cellIdsBuffer[i++] = x1 + y1 * cellsPerRow;
-					if(x2 >= 0 && x2 < cellsPerRow)
-						cellIdsBuffer[i++] = x2 + y1 * cellsPerRow;
-				}
+		int[] queryStamps = worker.queryStamps;
+		int queryEpoch = worker.queryEpoch;
+		int len = queryBuffer.size;
 
-				while(i <= 3) cellIdsBuffer[i++] = -1;
+		for (int i = 0 ; i < len ; i++){
+			int slot = queryBuffer.get(i);
 
-			} else {
-				int i = 0;
-				int y1CellsPerRow = y1 * cellsPerRow;
-				int y2CellsPerRow = y2 * cellsPerRow;
+			if (queryStamps[slot] == queryEpoch) continue;
 
-				if(x1 >= 0 && x1 < cellsPerRow && y1 >= 0 && y1 < cellsPerCol)
-					cellIdsBuffer[i++] = x1 + y1CellsPerRow;
-				if(x2 >= 0 && x2 < cellsPerRow && y1 >= 0 && y1 < cellsPerCol)
-					cellIdsBuffer[i++] = x2 + y1CellsPerRow;
-				if(x2 >= 0 && x2 < cellsPerRow && y2 >= 0 && y2 < cellsPerCol)
-					cellIdsBuffer[i++] = x2 + y2CellsPerRow;
-				if(x1 >= 0 && x1 < cellsPerRow && y2 >= 0 && y2 < cellsPerCol)
-					cellIdsBuffer[i++] = x1 + y2CellsPerRow;
+			queryStamps[slot] = queryEpoch;
+			Entity collider = slotEntities.get(slot);
 
-				while(i <= 3) cellIdsBuffer[i++] = -1;
-			}
+			if (collider == null || collider == entity) continue;
+
+			if (mask != CollisionLayers.ALL && !CollisionLayers.accepts(mask, categories[slot]) &&
+				!CollisionLayers.accepts(masks[slot], category)) continue;
+
+			//If there's a filter, skip unmatching entities
+			if (filter != null)
+				if (!filter.matches(collider)) continue;
+
+			boolean hasColliderBody = !bounds.isPoint(slot);
+
+			//Collision happens only if one of two entities has a Body.
+			if (hasColliderBody || hasBody)
+				worker.candidates.add(slot);
 		}
+	}
 
-		return cellIdsBuffer;
+	/**
+	 * @see #queryArea(float, float, float, float, Family, Array)
+	 */
+	public int queryArea(Rectangle area, Family filter, Array<Entity> out) {
+		return queryArea(area.x, area.y, area.x + area.width, area.y + area.height, filter, out);
 	}
 
 	/**
-	 * Returns all potential colliders for an entity, by checking all the cell lists whose IDs match the result of {@link #getCellIds(Entity)}. 
-	 * 
-	 * @param entity
+	 * Finds all colliders whose bounding rectangle overlaps the given area, edges included. Moving colliders are only found
+	 * within the collision window, static ones anywhere. Bounds are the ones computed at the last physics step.
+	 *
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
 	 * @param filter the Family all colliders must match. Null for any.
-	 * @return
+	 * @param out the buffer the colliders are written to. It is cleared first.
+	 * @return the number of colliders found.
 	 */
-	public Array<Entity> getPotentialColliders(Entity entity, Family filter){
-		potentialColliders.clear();
-		int[] cellIds = getCellIds(entity);
-
-		if (cellIds == null)
-			return null;
-
-		boolean hasBody = Mappers.bm.get(entity) != null;
-		int i = 0;
-		int cellId = -1;
-
-		while(i <= 3 && (cellId = cellIds[i++]) != -1){
-			int len = collidableCells[cellId].size;
-			
-			for (int j = 0 ; j < len ; j++){
-				Entity collider = collidableCells[cellId].get(j);
-				
-				//If there's a filter, skip unmatching entities
-				if (filter != null) 
-					if (!filter.matches(collider)) continue;
-				
-				boolean hasColliderBody = Mappers.bm.get(collider) != null;
-				
-				//Collision happens only if one of two entities has a Body.
-				if (!potentialColliders.contains(collider, true) && collider != entity && (hasColliderBody || hasBody))	
-					potentialColliders.add(collider);
-			}
+	public int queryArea(float minX, float minY, float maxX, float maxY, Family filter, Array<Entity> out) {
+		out.clear();
+		gatherSlots(minX, minY, maxX, maxY, filter);
+
+		for (int i = 0 ; i < mainWorker.candidates.size ; i++) {
+			int slot = mainWorker.candidates.get(i);
+
+			if (bounds.getMinX(slot) <= maxX && bounds.getMaxX(slot) >= minX && bounds.getMinY(slot) <= maxY && bounds.getMaxY(slot) >= minY)
+				out.add(slotEntities.get(slot));
+		}
+
+		return out.size;
+	}
+
+	/**
+	 * Finds all colliders whose bounding rectangle is within the given distance from a point.
+	 * See {@link #queryArea(float, float, float, float, Family, Array)} for which colliders can be found.
+	 *
+	 * @param x
+	 * @param y
+	 * @param radius
+	 * @param filter the Family all colliders must match. Null for any.
+	 * @param out the buffer the colliders are written to. It is cleared first.
+	 * @return the number of colliders found.
+	 */
+	public int queryRadius(float x, float y, float radius, Family filter, Array<Entity> out) {
+		out.clear();
+		gatherSlots(x - radius, y - radius, x + radius, y + radius, filter);
+
+		float radius2 = radius * radius;
+
+		for (int i = 0 ; i < mainWorker.candidates.size ; i++) {
+			int slot = mainWorker.candidates.get(i);
+
+			//Distance from the closest point of the rectangle.
+			float dx = Math.max(bounds.getMinX(slot), Math.min(x, bounds.getMaxX(slot))) - x;
+			float dy = Math.max(bounds.getMinY(slot), Math.min(y, bounds.getMaxY(slot))) - y;
+
+			if (dx * dx + dy * dy <= radius2)
+				out.add(slotEntities.get(slot));
+		}
+
+		return out.size;
+	}
+
+	/**
+	 * Finds all colliders whose bounding rectangle is crossed by the segment going from (x0, y0) to (x1, y1), sorted from the closest
+	 * to the farthest from (x0, y0). A ray is a segment long enough.
+	 * See {@link #queryArea(float, float, float, float, Family, Array)} for which colliders can be found.
+	 *
+	 * @param x0
+	 * @param y0
+	 * @param x1
+	 * @param y1
+	 * @param filter the Family all colliders must match. Null for any.
+	 * @param out the buffer the colliders are written to. It is cleared first.
+	 * @return the number of colliders found.
+	 */
+	public int querySegment(float x0, float y0, float x1, float y1, Family filter, Array<Entity> out) {
+		out.clear();
+		segmentHits.clear();
+		gatherSlots(Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1), filter);
+
+		for (int i = 0 ; i < mainWorker.candidates.size ; i++) {
+			int slot = mainWorker.candidates.get(i);
+			float t = Geometry.intersectSegmentRectangle(x0, y0, x1, y1, bounds.getMinX(slot), bounds.getMinY(slot),
+														 bounds.getMaxX(slot), bounds.getMaxY(slot));
+
+			if (t < 0) continue;
+
+			//Insertion sort: there are never many results.
+			int index = segmentHits.size;
+
+			while (index > 0 && segmentHits.get(index - 1) > t)
+				index--;
+
+			segmentHits.insert(index, t);
+			out.insert(index, slotEntities.get(slot));
+		}
+
+		return out.size;
+	}
+
+	/**
+	 * Fills the main worker's candidates with all colliders, moving or static, the broad phases report for the given area.
+	 */
+	private void gatherSlots(float minX, float minY, float maxX, float maxY, Family filter) {
+		IntArray queryBuffer = mainWorker.queryBuffer;
+
+		mainWorker.candidates.clear();
+		queryBuffer.clear();
+		broadPhase.query(minX, minY, maxX, maxY, queryBuffer);
+		staticIndex.query(minX, minY, maxX, maxY, queryBuffer);
+		nextQueryEpoch(mainWorker);
+
+		for (int i = 0 ; i < queryBuffer.size ; i++) {
+			int slot = queryBuffer.get(i);
+
+			if (mainWorker.queryStamps[slot] == mainWorker.queryEpoch) continue;
+
+			mainWorker.queryStamps[slot] = mainWorker.queryEpoch;
+			Entity collider = slotEntities.get(slot);
+
+			if (collider != null && (filter == null || filter.matches(collider)))
+				mainWorker.candidates.add(slot);
 		}
+	}
+
+	/**
+	 * Static colliders are obstacles that can't move.
+	 */
+	private boolean isStatic(Entity entity) {
+		return Mappers.om.get(entity) != null && Mappers.bm.get(entity) != null && Mappers.vm.get(entity) == null;
+	}
 
-		return potentialColliders;		
+	/**
+	 * Swept bullets are bullets without a body.
+	 */
+	private boolean isSwept(Entity entity) {
+		return Mappers.bum.get(entity) != null && Mappers.bm.get(entity) == null && Mappers.pm.get(entity) != null;
 	}
 
 	/**
-	 * Clears both the list of colliders and the lists representing the hash grid's cells, then updates both.
-	 * 
+	 * @return the entity's bounding rectangle, or a zero sized one at its position if it has no body.
 	 */
-	private void refreshCells(){
-		clearCells(collidableCells);
-		collidersList.clear();
-		offset.set(GameScreen.getEngine().getCameraPosition());
-		offset.add(-collisionWidth / 2, -collisionHeight / 2);
-
-		for (Entity collidable : GameScreen.getEngine().getEntitiesFor(Families.COLLIDERS_FAMILY)){
-			insertEntityInCells(collidable, collidableCells);
-			collidersList.add(collidable);
+	private Rectangle getBounds(Entity entity) {
+		Body body = Mappers.bm.get(entity);
+
+		if (body != null)
+			return body.polygon.getBoundingRectangle();
+
+		Vector2 pos = Mappers.pm.get(entity).value;
+		return pointBounds.set(pos.x, pos.y, 0, 0);
+	}
+
+	private void nextQueryEpoch(Worker worker) {
+		if (worker.queryStamps.length < slotEntities.size)
+			worker.queryStamps = new int[Math.max(worker.queryStamps.length * 2, slotEntities.size)];
+
+		if (++worker.queryEpoch == Integer.MAX_VALUE) {
+			Arrays.fill(worker.queryStamps, 0);
+			worker.queryEpoch = 1;
 		}
 	}
-	
+
+	private int[] grow(int[] array) {
+		int[] newArray = new int[array.length * 2];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+
+	private float[] grow(float[] array) {
+		float[] newArray = new float[array.length * 2];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+
+	private boolean[] grow(boolean[] array) {
+		boolean[] newArray = new boolean[array.length * 2];
+		System.arraycopy(array, 0, newArray, 0, array.length);
+		return newArray;
+	}
+
 	public void resizeCells(float cellSize) {
 		this.cellSize = cellSize;
-		dirty = true;
+		broadPhase.resize(cellSize);
 	}
-	
-	@SuppressWarnings("unchecked")
-	private void resizeCellsInternal() {
-		cellsPerRow = (int)Math.ceil(collisionWidth / cellSize);
-		cellsPerCol = (int)Math.ceil(collisionHeight / cellSize);
-		cellsNumber = cellsPerRow * cellsPerCol;
 
-		collidableCells = new Array[cellsNumber];
-		collidersList = new Array<Entity>();
-		potentialColliders = new Array<Entity>(10);
-
-		for (int i = 0 ; i < cellsNumber ; i++)
-			collidableCells[i] = new Array<Entity>(10);
-		
-		dirty = false;
+	/**
+	 * The buffers one thread needs to run the narrow phase. Each worker has its own query stamps, so that several of them
+	 * can query the broad phase at the same time.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	private class Worker {
+		private IntArray queryBuffer = new IntArray();
+		private IntArray candidates = new IntArray(10);
+		private int[] queryStamps = new int[64];
+		private int queryEpoch = 0;
+
+		//Colliding slots, two by two: the entity, then the collider.
+		private IntArray pairs = new IntArray();
 	}
 }
@@ -1,39 +1,78 @@
 package com.gff.spacenauts.ashley.systems;
 
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.systems.IntervalIteratingSystem;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
 import com.gff.spacenauts.ashley.Families;
 import com.gff.spacenauts.ashley.Mappers;
 import com.gff.spacenauts.ashley.components.Immunity;
-
-/*
- * Note to self: after the introduction of timers this is more or less deprecated...
- * I should totally write some adaptation code.
- */
+import com.gff.spacenauts.listeners.TimerListener;
+import com.gff.spacenauts.screens.GameScreen;
 
 /**
- * Updates {@link Immunity} components' timers.
+ * Takes {@link Immunity} components off once they expire. Rather than counting them down each frame, a one shot timer is scheduled
+ * on the {@link TimerSystem} as soon as the component is added, which removes it at the end of the engine's update.
  * 
  * @author Alessio Cali'
  *
  */
-public class ImmunitySystem extends IntervalIteratingSystem {
+public class ImmunitySystem extends EntitySystem implements EntityListener {
 
-	private static final float DELTA = 0.01f;
+	private Engine engine;
 
-	public ImmunitySystem(){
-		super(Families.IMMUNE_FAMILY, DELTA);
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		this.engine = engine;
+		engine.addEntityListener(Families.IMMUNE_FAMILY, this);
+
+		for (Entity entity : engine.getEntitiesFor(Families.IMMUNE_FAMILY))
+			entityAdded(entity);
 	}
 
 	@Override
-	protected void processEntity(Entity entity) {
-		Immunity im = Mappers.im.get(entity);
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(this);
+		this.engine = null;
+	}
+
+	@Override
+	public void entityAdded(Entity entity) {
+		TimerSystem timers = engine.getSystem(TimerSystem.class);
+		Immunity immunity = Mappers.im.get(entity);
+
+		if (timers != null)
+			timers.schedule(entity, new Expiry(immunity));
+	}
+
+	@Override
+	public void entityRemoved(Entity entity) {
+
+	}
+
+	/**
+	 * Removes the Immunity it was scheduled for, unless it was already replaced.
+	 * 
+	 * @author Alessio Cali'
+	 *
+	 */
+	private static class Expiry extends TimerListener {
+
+		private Immunity immunity;
+
+		private Expiry(Immunity immunity) {
+			super(TimerType.ONE_SHOT, immunity.duration);
+			this.immunity = immunity;
+		}
 
-		if (im != null) {
-			im.timer += DELTA;
+		@Override
+		protected boolean onActivation(Entity entity) {
+			if (Mappers.im.get(entity) == immunity)
+				GameScreen.getEngine().deferRemoveComponent(entity, Immunity.class);
 
-			if (im.timer > im.duration)
-				entity.remove(Immunity.class);
+			return true;
 		}
 	}
 }
@@ -0,0 +1,196 @@
+package com.gff.spacenauts.ashley.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.gff.spacenauts.ashley.Families;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.components.Angle;
+import com.gff.spacenauts.ashley.components.AngularVelocity;
+import com.gff.spacenauts.ashley.components.Body;
+import com.gff.spacenauts.ashley.components.Position;
+import com.gff.spacenauts.ashley.components.Velocity;
+
+/**
+ * <p>
+ * References to the kinematic components of all entities in {@link Families#MOVEMENT_FAMILY}, one array per component type, all indexed
+ * by the same dense slot. Entries are looked up once when the entity joins the family, so iterating the cache needs no
+ * {@link com.badlogic.ashley.core.ComponentMapper ComponentMapper} nor the engine's entity array at all.
+ * </p>
+ *
+ * <p>
+ * Components stay where they are: the cache holds no copy of their values. Steering writes velocities and collisions read positions
+ * at every physics step, so float copies would have to be filled and written back each step, and on MovementBenchmark that costs
+ * more than the packed loop saves.
+ * </p>
+ *
+ * <p>
+ * Slots are kept packed: when an entity leaves, the last one takes its slot. Slots are thus only valid until the next removal.
+ * The optional {@link AngularVelocity} and {@link Body} and the player flag are read on insertion as well, since the game never adds nor removes them
+ * from an entity after it's built.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class KinematicCache implements EntityListener {
+
+	private ObjectIntMap<Entity> slots = new ObjectIntMap<Entity>();
+	private int size = 0;
+
+	private Entity[] entities = new Entity[64];
+	private Position[] positions = new Position[64];
+	private Velocity[] velocities = new Velocity[64];
+	private Angle[] angles = new Angle[64];
+	private AngularVelocity[] angularVelocities = new AngularVelocity[64];
+	private Body[] bodies = new Body[64];
+	private boolean[] players = new boolean[64];
+
+	/**
+	 * Starts listening to the engine and adds all entities that already move.
+	 */
+	public void attach(Engine engine) {
+		engine.addEntityListener(Families.MOVEMENT_FAMILY, this);
+
+		for (Entity entity : engine.getEntitiesFor(Families.MOVEMENT_FAMILY))
+			entityAdded(entity);
+	}
+
+	/**
+	 * Stops listening to the engine and empties the cache.
+	 */
+	public void detach(Engine engine) {
+		engine.removeEntityListener(this);
+
+		for (int i = 0 ; i < size ; i++)
+			clearSlot(i);
+
+		slots.clear();
+		size = 0;
+	}
+
+	@Override
+	public void entityAdded(Entity entity) {
+		if (slots.containsKey(entity)) return;
+
+		if (size == entities.length) grow();
+
+		int slot = size++;
+		entities[slot] = entity;
+		positions[slot] = Mappers.pm.get(entity);
+		velocities[slot] = Mappers.vm.get(entity);
+		angles[slot] = Mappers.am.get(entity);
+		angularVelocities[slot] = Mappers.avm.get(entity);
+		bodies[slot] = Mappers.bm.get(entity);
+		players[slot] = Families.PLAYER_FAMILY.matches(entity);
+		slots.put(entity, slot);
+	}
+
+	@Override
+	public void entityRemoved(Entity entity) {
+		int slot = slots.remove(entity, -1);
+
+		if (slot == -1) return;
+
+		int last = --size;
+
+		if (slot != last) {
+			entities[slot] = entities[last];
+			positions[slot] = positions[last];
+			velocities[slot] = velocities[last];
+			angles[slot] = angles[last];
+			angularVelocities[slot] = angularVelocities[last];
+			bodies[slot] = bodies[last];
+			players[slot] = players[last];
+			slots.put(entities[slot], slot);
+		}
+
+		clearSlot(last);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	//The arrays below are valid up to size() - 1. They must not be modified.
+
+	public Entity[] getEntities() {
+		return entities;
+	}
+
+	public Position[] getPositions() {
+		return positions;
+	}
+
+	public Velocity[] getVelocities() {
+		return velocities;
+	}
+
+	public Angle[] getAngles() {
+		return angles;
+	}
+
+	/**
+	 * @return the entities' angular velocities. Entries are null for entities without one.
+	 */
+	public AngularVelocity[] getAngularVelocities() {
+		return angularVelocities;
+	}
+
+	/**
+	 * @return the entities' bodies. Entries are null for entities without one.
+	 */
+	public Body[] getBodies() {
+		return bodies;
+	}
+
+	public boolean[] getPlayers() {
+		return players;
+	}
+
+	/**
+	 * Drops all references held by a slot, so that pooled components aren't kept alive.
+	 */
+	private void clearSlot(int slot) {
+		entities[slot] = null;
+		positions[slot] = null;
+		velocities[slot] = null;
+		angles[slot] = null;
+		angularVelocities[slot] = null;
+		bodies[slot] = null;
+		players[slot] = false;
+	}
+
+	private void grow() {
+		int length = entities.length * 2;
+
+		Entity[] newEntities = new Entity[length];
+		System.arraycopy(entities, 0, newEntities, 0, size);
+		entities = newEntities;
+
+		Position[] newPositions = new Position[length];
+		System.arraycopy(positions, 0, newPositions, 0, size);
+		positions = newPositions;
+
+		Velocity[] newVelocities = new Velocity[length];
+		System.arraycopy(velocities, 0, newVelocities, 0, size);
+		velocities = newVelocities;
+
+		Angle[] newAngles = new Angle[length];
+		System.arraycopy(angles, 0, newAngles, 0, size);
+		angles = newAngles;
+
+		AngularVelocity[] newAngularVelocities = new AngularVelocity[length];
+		System.arraycopy(angularVelocities, 0, newAngularVelocities, 0, size);
+		angularVelocities = newAngularVelocities;
+
+		Body[] newBodies = new Body[length];
+		System.arraycopy(bodies, 0, newBodies, 0, size);
+		bodies = newBodies;
+
+		boolean[] newPlayers = new boolean[length];
+		System.arraycopy(players, 0, newPlayers, 0, size);
+		players = newPlayers;
+	}
+}
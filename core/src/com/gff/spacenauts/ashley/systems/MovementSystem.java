@@ -5,7 +5,9 @@ import com.badlogic.ashley.systems.IteratingSystem;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.Spacenauts;
 import com.gff.spacenauts.ashley.Families;
+import com.gff.spacenauts.ashley.FrameProfiler;
 import com.gff.spacenauts.ashley.Mappers;
 import com.gff.spacenauts.ashley.SpacenautsEngine;
 import com.gff.spacenauts.ashley.components.Angle;
@@ -19,6 +21,8 @@ import com.gff.spacenauts.screens.GameScreen;
 /**
  * <p>Moves entities according to their {@link Position} and {@link Velocity} components. Also clamps player's position to the viewable space.</p> 
  * 
+ * <p>Entities without an {@link AngularVelocity}, like bullets, keep their angle.</p>
+ * 
  * <p>To prevent time aliasing it should wrapped inside {@link PhysicsSystem}.</p>
  * 
  * @author Alessio Cali'
@@ -26,7 +30,11 @@ import com.gff.spacenauts.screens.GameScreen;
  */
 public class MovementSystem extends IteratingSystem {
 	
+	//Key of the coop message in the FrameProfiler.
+	private static final String PROFILE_COOP = "MovementSystem/coop position";
+
 	private Vector2 oldPos = new Vector2();
+	private FrameProfiler.LapTimer laps = new FrameProfiler.LapTimer(Spacenauts.getProfiler());
 
 	public MovementSystem() {
 		super(Families.MOVEMENT_FAMILY);
@@ -34,8 +42,6 @@ public class MovementSystem extends IteratingSystem {
 
 	@Override
 	protected void processEntity(Entity entity, float delta) {
-		SpacenautsEngine engine = GameScreen.getEngine();
-
 		Position pos = Mappers.pm.get(entity);
 		Velocity vel = Mappers.vm.get(entity);
 		Angle ang = Mappers.am.get(entity);
@@ -43,20 +49,36 @@ public class MovementSystem extends IteratingSystem {
 		Body body = Mappers.bm.get(entity);
 		
 		pos.value.mulAdd(vel.value, delta);
-		ang.value += angVel.value * delta;		
+		
+		if (angVel != null)
+			ang.value += angVel.value * delta;
 		
 		if (body != null){
 			body.polygon.setPosition(pos.value.x, pos.value.y);
 			body.polygon.setRotation(ang.getAngleDegrees());
 		}
 		
-		if (Families.PLAYER_FAMILY.matches(entity) && !engine.isGameOver()) {
-			
-			oldPos.set(pos.value);
-			clamp(pos.value, Mappers.wcm.get(engine.getCamera()).stopped);
-			
-			engine.sendCoop("PLAYER_POS " + String.valueOf(pos.value.x) + " " + String.valueOf(pos.value.y) + " " + String.valueOf(ang.value));
-		}
+		if (Families.PLAYER_FAMILY.matches(entity))
+			updatePlayer(pos, ang);
+	}
+
+	/**
+	 * Keeps the player within the viewable space and sends its position to the coop player.
+	 * 
+	 * @param pos
+	 * @param ang
+	 */
+	protected void updatePlayer(Position pos, Angle ang) {
+		SpacenautsEngine engine = GameScreen.getEngine();
+		
+		if (engine.isGameOver()) return;
+		
+		oldPos.set(pos.value);
+		clamp(pos.value, Mappers.wcm.get(engine.getCamera()).stopped);
+		
+		laps.start();
+		engine.sendCoop("PLAYER_POS " + String.valueOf(pos.value.x) + " " + String.valueOf(pos.value.y) + " " + String.valueOf(ang.value));
+		laps.lap(PROFILE_COOP);
 	}
 
 	private void clamp(Vector2 position, boolean cameraStopped){
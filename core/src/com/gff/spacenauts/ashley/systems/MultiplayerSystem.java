@@ -9,6 +9,7 @@ import com.gff.spacenauts.Logger.LogLevel;
 import com.gff.spacenauts.Spacenauts;
 import com.gff.spacenauts.ai.PowerUpAI;
 import com.gff.spacenauts.ai.PowerUpAI.PowerUpState;
+import com.gff.spacenauts.ashley.FrameProfiler;
 import com.gff.spacenauts.ashley.Mappers;
 import com.gff.spacenauts.ashley.components.Angle;
 import com.gff.spacenauts.ashley.components.Body;
@@ -33,6 +34,7 @@ public class MultiplayerSystem extends EntitySystem {
 	private static final String TAG = "MultiplayerSystem";
 	
 	private static final int MAX_HANDLED_MSG = 50;
+	private static final String PROFILE_PARSE = "MultiplayerSystem/parse";
 	
 	private NetworkAdapter na;
 	private Entity friendPlayer;
@@ -41,6 +43,7 @@ public class MultiplayerSystem extends EntitySystem {
 
 	private float avgX, avgY, avgA;
 	private int n;
+	private FrameProfiler.LapTimer laps = new FrameProfiler.LapTimer(Spacenauts.getProfiler());
 
 	public MultiplayerSystem() {
 		if (Spacenauts.getNetworkAdapter() == null) 
@@ -87,7 +90,11 @@ public class MultiplayerSystem extends EntitySystem {
 
 				if (msg == null) break;
 
-				else parse(msg);
+				else {
+					laps.start();
+					parse(msg);
+					laps.lap(PROFILE_PARSE);
+				}
 
 				if (friendDied) {
 					Death d = Mappers.dem.get(friendPlayer);
@@ -2,44 +2,87 @@ package com.gff.spacenauts.ashley.systems;
 
 import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.systems.IntervalSystem;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.Spacenauts;
+import com.gff.spacenauts.ashley.FrameProfiler;
 import com.gff.spacenauts.ashley.Families;
-import com.gff.spacenauts.screens.GameScreen;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.components.Angle;
+import com.gff.spacenauts.ashley.components.Position;
 
 /**
+ * <p>
  * Wraps together {@link MovementSystem}, {@link SteeringSystem} and {@link CollisionSystem} using a time accumulator
  * to avoid time aliasing, that is the effect of incorrect physics simulation when the delta time is too high
- * (say, for a temporary loss of performance in rendering).
+ * (say, for a temporary loss of performance in rendering).<br>
+ * The step length is read from {@link Globals#physicsStep}. Since bullets are swept by the {@link CollisionSystem}, it doesn't need to be short
+ * enough for bullets not to skip past thin bodies, so low end devices can use a coarser step.
+ * </p>
+ * 
+ * <p>
+ * No more than {@link #MAX_SUBSTEPS} steps are run in a single frame. After a long hitch the simulation would otherwise
+ * try to catch up with ever more steps, making the next frame even longer (the so called spiral of death): the time that
+ * doesn't fit is dropped instead, and the game slows down for a moment.
+ * </p>
+ * 
+ * <p>
+ * Before each step, the {@link Position} and {@link Angle} of all moving entities are saved. Whatever time is left in the accumulator
+ * after the last step is exposed as {@link #getAlpha()}, the fraction of a step the display is ahead of the simulation, which the
+ * {@link RenderingSystem} uses to draw entities between their previous and current state. This way motion looks smooth whatever
+ * the ratio between the step and the display rate.
+ * </p>
  * 
  * @author Alessio Cali'
  *
  */
-public class PhysicsSystem extends IntervalSystem {
+public class PhysicsSystem extends EntitySystem {
+
+	private final static float DEFAULT_STEP = 0.01f;
+	private final static float MAX_STEP = 0.05f;
+	private final static int MAX_SUBSTEPS = 5;
 
-	private final static float DELTA = 0.01f;
+	//Keys of each substep's part in the FrameProfiler, summed over all substeps of a frame.
+	private final static String PROFILE_STEERING = "PhysicsSystem/steering";
+	private final static String PROFILE_MOVEMENT = "PhysicsSystem/movement";
+	private final static String PROFILE_COLLISION = "PhysicsSystem/collision";
 	
+	private float step;
+	private float accumulator = 0;
+	private float alpha = 0;
+	private int droppedSteps = 0;
+	private ImmutableArray<Entity> moving;
 	private MovementSystem ms;
 	private SteeringSystem ss;
 	private CollisionSystem cs;
+	private FrameProfiler profiler = Spacenauts.getProfiler();
 	
 	public PhysicsSystem(MovementSystem ms, SteeringSystem ss, CollisionSystem cs) {
-		super(DELTA);
-		this.ms = ms;
-		this.ss = ss;
-		this.cs = cs;
+		this(0, ms, ss, cs);
 	}
 
 	public PhysicsSystem(int priority, MovementSystem ms, SteeringSystem ss, CollisionSystem cs) {
+		this(getConfiguredStep(), priority, ms, ss, cs);
+	}
+
+	/**
+	 * @param step the fixed step length in seconds.
+	 */
+	public PhysicsSystem(float step, int priority, MovementSystem ms, SteeringSystem ss, CollisionSystem cs) {
 		super(priority);
+		this.step = step;
 		this.ms = ms;
 		this.ss = ss;
 		this.cs = cs;
 	}
+
 	
 	@Override
 	public void addedToEngine(Engine engine) {
 		super.addedToEngine(engine);
+		moving = engine.getEntitiesFor(Families.MOVEMENT_FAMILY);
 		ms.addedToEngine(engine);
 		ss.addedToEngine(engine);
 		cs.addedToEngine(engine);
@@ -56,13 +99,84 @@ public class PhysicsSystem extends IntervalSystem {
 	
 
 	@Override
-	protected void updateInterval() {
-		ss.update(DELTA);
-		ms.update(DELTA);
-		cs.update(DELTA);		
+	public void update(float delta) {
+		accumulator += delta;
+		int substeps = 0;
+
+		while (accumulator >= step) {
+			if (substeps == MAX_SUBSTEPS) {
+				//Drop whatever doesn't fit but the leftover fraction, to keep the interpolation going.
+				int dropped = (int)(accumulator / step);
+				droppedSteps += dropped;
+				accumulator -= dropped * step;
+				break;
+			}
+
+			savePreviousState();
+
+			if (profiler.isEnabled()) {
+				long start = TimeUtils.nanoTime();
+				long startBytes = profiler.getAllocatedBytes();
+				ss.update(step);
+				long steered = TimeUtils.nanoTime();
+				long steeredBytes = profiler.getAllocatedBytes();
+				ms.update(step);
+				long moved = TimeUtils.nanoTime();
+				long movedBytes = profiler.getAllocatedBytes();
+				cs.update(step);
+				profiler.add(PROFILE_STEERING, steered - start, steeredBytes - startBytes);
+				profiler.add(PROFILE_MOVEMENT, moved - steered, movedBytes - steeredBytes);
+				profiler.add(PROFILE_COLLISION, TimeUtils.nanoTime() - moved, profiler.getAllocatedBytes() - movedBytes);
+			} else {
+				ss.update(step);
+				ms.update(step);
+				cs.update(step);
+			}
+
+			accumulator -= step;
+			substeps++;
+		}
+
+		alpha = accumulator / step;
+	}
+
+	/**
+	 * Saves the current Position and Angle of all moving entities, so they can be interpolated.
+	 */
+	private void savePreviousState() {
+		for (int i = 0 ; i < moving.size() ; i++) {
+			Entity entity = moving.get(i);
+			Mappers.pm.get(entity).savePrevious();
+			Mappers.am.get(entity).savePrevious();
+		}
+	}
+
+	/**
+	 * @return how far the display is between the last two simulated states, from 0 to 1.
+	 */
+	public float getAlpha() {
+		return alpha;
+	}
+
+	/**
+	 * @return how many steps were dropped by the substep cap since the system was created.
+	 */
+	public int getDroppedSteps() {
+		return droppedSteps;
+	}
+
+	public float getStep() {
+		return step;
+	}
+
+	public CollisionSystem getCollisionSystem() {
+		return cs;
 	}
 
-	public Array<Entity> getNearbyObstacles() {
-		return cs.getPotentialColliders(GameScreen.getEngine().getPlayer(), Families.OBSTACLE_FAMILY);
+	/**
+	 * @return {@link Globals#physicsStep}, or the default step if it's not a sensible value.
+	 */
+	private static float getConfiguredStep() {
+		return Globals.physicsStep > 0 && Globals.physicsStep <= MAX_STEP ? Globals.physicsStep : DEFAULT_STEP;
 	}
 }
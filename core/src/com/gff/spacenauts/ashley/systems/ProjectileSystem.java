@@ -0,0 +1,279 @@
+package com.gff.spacenauts.ashley.systems;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.core.Family;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.components.Bullet;
+import com.gff.spacenauts.ashley.components.CollisionDamage;
+import com.gff.spacenauts.ashley.components.Enemy;
+import com.gff.spacenauts.ashley.components.Friendly;
+import com.gff.spacenauts.ashley.components.Hittable;
+import com.gff.spacenauts.ashley.components.Obstacle;
+import com.gff.spacenauts.ashley.components.Position;
+import com.gff.spacenauts.data.GunData;
+import com.gff.spacenauts.screens.GameScreen;
+
+/**
+ * <p>
+ * Bullets that aren't entities. Each projectile is a handful of primitives, one array per field, all indexed by the same dense slot:
+ * position, velocity, rotation, damage, faction and kind, that is the sprite and scale it's drawn with. Thousands of them cost
+ * no more than a few loops over those arrays, and none of the other systems ever sees them.
+ * </p>
+ *
+ * <p>
+ * Every update projectiles are moved, dropped as soon as they leave the camera's view, then swept against the {@link Hittable}s
+ * of the opposite faction and obstacles through {@link CollisionSystem#querySegment(float, float, float, float, Family, Array)},
+ * so they hit whatever an entity bullet on the same path would. A projectile stops at the first body it crosses, whose hit
+ * listeners are called right away with a proxy entity standing for the projectile: the proxy carries the projectile's position,
+ * faction and {@link CollisionDamage}, so listeners like {@link com.gff.spacenauts.listeners.hit.DamageAndDie DamageAndDie} work as usual.
+ * </p>
+ *
+ * <p>
+ * Projectiles are drawn by the {@link RenderingSystem} in a single pass through {@link #draw(SpriteBatch)}.
+ * Guns opt in through {@link GunData#lightweight}. The price is that bullet and shot listeners are never called for projectiles.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class ProjectileSystem extends EntitySystem {
+
+	private static final Family FRIENDLY_TARGETS = Family.one(Enemy.class, Obstacle.class).get();
+	private static final Family ENEMY_TARGETS = Family.one(Friendly.class, Obstacle.class).get();
+
+	private static final int INITIAL_CAPACITY = 256;
+
+	private int size = 0;
+	private float[] x = new float[INITIAL_CAPACITY];
+	private float[] y = new float[INITIAL_CAPACITY];
+	private float[] vx = new float[INITIAL_CAPACITY];
+	private float[] vy = new float[INITIAL_CAPACITY];
+	private float[] rotations = new float[INITIAL_CAPACITY];
+	private float[] damages = new float[INITIAL_CAPACITY];
+	private int[] kinds = new int[INITIAL_CAPACITY];
+	private boolean[] friendly = new boolean[INITIAL_CAPACITY];
+
+	private Array<Sprite> kindSprites = new Array<Sprite>();
+	private FloatArray kindScaleX = new FloatArray();
+	private FloatArray kindScaleY = new FloatArray();
+
+	private Entity friendlyProxy = buildProxy(true);
+	private Entity enemyProxy = buildProxy(false);
+	private Array<Entity> targets = new Array<Entity>();
+
+	private CollisionSystem collisions;
+
+	public ProjectileSystem() {
+		super();
+	}
+
+	public ProjectileSystem(int priority) {
+		super(priority);
+	}
+
+	@Override
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		PhysicsSystem physics = engine.getSystem(PhysicsSystem.class);
+		collisions = physics != null ? physics.getCollisionSystem() : null;
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		clear();
+		collisions = null;
+	}
+
+	/**
+	 * Shoots a projectile.
+	 *
+	 * @param posX
+	 * @param posY
+	 * @param angle the projectile's direction, in radians.
+	 * @param speed
+	 * @param damage
+	 * @param sprite the projectile's image. Drawn centered on the projectile's position.
+	 * @param scaleX
+	 * @param scaleY
+	 * @param friendly whether the projectile was shot by the player's faction.
+	 */
+	public void spawn(float posX, float posY, float angle, float speed, float damage, Sprite sprite, float scaleX, float scaleY, boolean friendly) {
+		if (size == x.length) grow();
+
+		int slot = size++;
+		x[slot] = posX;
+		y[slot] = posY;
+		vx[slot] = MathUtils.cos(angle) * speed;
+		vy[slot] = MathUtils.sin(angle) * speed;
+		rotations[slot] = angle * MathUtils.radiansToDegrees;
+		damages[slot] = damage;
+		kinds[slot] = getKind(sprite, scaleX, scaleY);
+		this.friendly[slot] = friendly;
+	}
+
+	@Override
+	public void update(float delta) {
+		Vector2 cameraPos = GameScreen.getEngine().getCameraPosition();
+		float minX = cameraPos.x - Globals.TARGET_CAMERA_WIDTH / 2;
+		float maxX = cameraPos.x + Globals.TARGET_CAMERA_WIDTH / 2;
+		float minY = cameraPos.y - Globals.TARGET_CAMERA_HEIGHT / 2;
+		float maxY = cameraPos.y + Globals.TARGET_CAMERA_HEIGHT / 2;
+
+		int slot = 0;
+
+		//Removing a projectile moves the last one into its slot, which is then processed in turn.
+		while (slot < size) {
+			float x0 = x[slot];
+			float y0 = y[slot];
+			x[slot] += vx[slot] * delta;
+			y[slot] += vy[slot] * delta;
+
+			if (x[slot] < minX || x[slot] > maxX || y[slot] < minY || y[slot] > maxY || hit(slot, x0, y0))
+				remove(slot);
+			else
+				slot++;
+		}
+	}
+
+	/**
+	 * Draws all projectiles. The batch must have already begun.
+	 *
+	 * @param batch
+	 */
+	public void draw(SpriteBatch batch) {
+		for (int slot = 0 ; slot < size ; slot++) {
+			int kind = kinds[slot];
+			Sprite sprite = kindSprites.get(kind);
+
+			if (sprite == null || sprite.getTexture() == null) continue;
+
+			float width = sprite.getWidth();
+			float height = sprite.getHeight();
+
+			batch.draw(sprite, x[slot] - width / 2, y[slot] - height / 2, width / 2, height / 2, width, height,
+					   kindScaleX.get(kind), kindScaleY.get(kind), rotations[slot]);
+		}
+	}
+
+	/**
+	 * @return the number of live projectiles.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Drops all projectiles.
+	 */
+	public void clear() {
+		size = 0;
+		kindSprites.clear();
+		kindScaleX.clear();
+		kindScaleY.clear();
+	}
+
+	/**
+	 * Sweeps the projectile from its previous position and hits the closest body of the opposite faction it crosses, if any.
+	 *
+	 * @return whether the projectile hit something.
+	 */
+	private boolean hit(int slot, float x0, float y0) {
+		if (collisions == null) return false;
+
+		collisions.querySegment(x0, y0, x[slot], y[slot], friendly[slot] ? FRIENDLY_TARGETS : ENEMY_TARGETS, targets);
+
+		for (int i = 0 ; i < targets.size ; i++) {
+			Entity target = targets.get(i);
+
+			//Bullets of the opposite faction have no body. Targets killed earlier in this update are skipped too.
+			if (Mappers.bm.get(target) == null || target.isScheduledForRemoval()) continue;
+
+			Entity proxy = friendly[slot] ? friendlyProxy : enemyProxy;
+			Mappers.pm.get(proxy).value.set(x[slot], y[slot]);
+			Mappers.cdm.get(proxy).damageDealt = damages[slot];
+			Mappers.hm.get(target).listeners.onHit(target, proxy);
+			return true;
+		}
+
+		return false;
+	}
+
+	private void remove(int slot) {
+		int last = --size;
+
+		if (slot == last) return;
+
+		x[slot] = x[last];
+		y[slot] = y[last];
+		vx[slot] = vx[last];
+		vy[slot] = vy[last];
+		rotations[slot] = rotations[last];
+		damages[slot] = damages[last];
+		kinds[slot] = kinds[last];
+		friendly[slot] = friendly[last];
+	}
+
+	/**
+	 * Kinds are few, usually one per bullet image, so a linear search is enough.
+	 *
+	 * @return the index of the given sprite and scale, registered if it's new.
+	 */
+	private int getKind(Sprite sprite, float scaleX, float scaleY) {
+		for (int i = 0 ; i < kindSprites.size ; i++) {
+			if (kindSprites.get(i) == sprite && kindScaleX.get(i) == scaleX && kindScaleY.get(i) == scaleY)
+				return i;
+		}
+
+		kindSprites.add(sprite);
+		kindScaleX.add(scaleX);
+		kindScaleY.add(scaleY);
+		return kindSprites.size - 1;
+	}
+
+	/**
+	 * Builds the entity hit listeners see in place of a projectile. It's never added to the engine.
+	 */
+	private static Entity buildProxy(boolean friendly) {
+		Entity proxy = new Entity();
+
+		proxy.add(new Position()).add(new CollisionDamage()).add(new Bullet());
+		proxy.add(friendly ? new Friendly() : new Enemy());
+
+		return proxy;
+	}
+
+	private void grow() {
+		int length = x.length * 2;
+
+		x = grow(x, length);
+		y = grow(y, length);
+		vx = grow(vx, length);
+		vy = grow(vy, length);
+		rotations = grow(rotations, length);
+		damages = grow(damages, length);
+
+		int[] newKinds = new int[length];
+		System.arraycopy(kinds, 0, newKinds, 0, size);
+		kinds = newKinds;
+
+		boolean[] newFriendly = new boolean[length];
+		System.arraycopy(friendly, 0, newFriendly, 0, size);
+		friendly = newFriendly;
+	}
+
+	private float[] grow(float[] array, int length) {
+		float[] newArray = new float[length];
+		System.arraycopy(array, 0, newArray, 0, size);
+		return newArray;
+	}
+}
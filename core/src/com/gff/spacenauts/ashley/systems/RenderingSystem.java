@@ -6,7 +6,6 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.g2d.Animation.PlayMode;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -20,27 +19,36 @@ import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.Spacenauts;
 import com.gff.spacenauts.ashley.Families;
+import com.gff.spacenauts.ashley.FrameProfiler;
 import com.gff.spacenauts.ashley.Mappers;
 import com.gff.spacenauts.ashley.components.Render;
-import com.gff.spacenauts.listeners.AnimationListener;
 import com.gff.spacenauts.screens.GameScreen;
 import com.gff.spacenauts.ui.GameUI;
 
 /**
  * Renders sprites, the map, UI elements and bounding shapes (when in debug mode). Also cares about rendering animations.
+ * Sprites and the camera are drawn between their last two physics states, see {@link PhysicsSystem#getAlpha()}.
+ * Projectiles of the {@link ProjectileSystem} are drawn on top of all entities.
  * 
  * @author Alessio Cali'
  *
  */
 public class RenderingSystem extends IteratingSystem {
 
+	private static final String PROFILE_UI = "RenderingSystem/ui";
+
 	private ShapeRenderer renderer;
 	private SpriteBatch spriteBatch;
 	private OrthoCachedTiledMapRenderer mapRenderer;
 	private TiledMap map;
 	private ShaderProgram immunityShader;
 	private GameUI ui;
+	private float alpha = 0;
+	private Vector2 drawPosition = new Vector2();
+	private Vector2 cameraPosition = new Vector2();
+	private FrameProfiler.LapTimer laps = new FrameProfiler.LapTimer(Spacenauts.getProfiler());
 
 	public RenderingSystem(GameScreen game){
 		super(Families.RENDERING_FAMILY);
@@ -69,7 +77,14 @@ public class RenderingSystem extends IteratingSystem {
 			Gdx.gl.glClearColor(0, 0, 0, 1);
 			Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 			
+			PhysicsSystem physics = GameScreen.getEngine().getSystem(PhysicsSystem.class);
+			alpha = physics != null ? physics.getAlpha() : 1;
+			
+			//The camera is interpolated as well, or sprites would judder against the map.
 			Viewport camera =  Mappers.wcm.get(cameraEntity).viewport;
+			Mappers.pm.get(cameraEntity).getInterpolated(alpha, cameraPosition);
+			camera.getCamera().position.set(cameraPosition.x, cameraPosition.y, 0);
+			camera.getCamera().update();
 			camera.apply();
 			
 			mapRenderer.setView((OrthographicCamera)camera.getCamera());
@@ -81,10 +96,16 @@ public class RenderingSystem extends IteratingSystem {
 			renderer.begin(ShapeType.Line);
 			spriteBatch.begin();
 			super.update(delta);
+			
+			ProjectileSystem projectiles = GameScreen.getEngine().getSystem(ProjectileSystem.class);
+			if (projectiles != null) projectiles.draw(spriteBatch);
+			
 			spriteBatch.end();
 			renderer.end();
 			
+			laps.start();
 			ui.render(delta);
+			laps.lap(PROFILE_UI);
 		}
 	}
 
@@ -92,7 +113,7 @@ public class RenderingSystem extends IteratingSystem {
 	protected void processEntity(Entity entity, float deltaTime) {
 		if (Families.SPRITE_FAMILY.matches(entity)){
 			Render render = Mappers.rm.get(entity);
-			Vector2 pos = Mappers.pm.get(entity).value;
+			Vector2 pos = Mappers.pm.get(entity).getInterpolated(alpha, drawPosition);
 
 			boolean dirty = false;
 			
@@ -104,16 +125,8 @@ public class RenderingSystem extends IteratingSystem {
 			}
 
 			if (render.animation != null && render.sprite != null){
-				//There's an animation, get the key frame and update all of the sprite's relevant data
-				
-				if (GameScreen.getEngine().isRunning()) {
-					//The animation just started, call all onStart methods.
-					if (render.animationTimer == 0)
-						for (AnimationListener listener : render.listeners) listener.onStart(entity, render.animation);						
-
-					render.animationTimer += deltaTime;
-				}
-
+				//There's an animation, get the key frame and update all of the sprite's relevant data.
+				//It's played by the AnimationSystem.
 				TextureRegion region = render.animation.getKeyFrame(render.animationTimer);
 				
 				render.sprite.setTexture(region.getTexture());
@@ -125,20 +138,13 @@ public class RenderingSystem extends IteratingSystem {
 					render.sprite.setAlpha(((Sprite)region).getColor().a);
 					dirty = true;
 				}
-
-				//The animation finished, call all onEnd methods.
-				if (render.animation.isAnimationFinished(render.animationTimer) && (render.animation.getPlayMode() == PlayMode.NORMAL || render.animation.getPlayMode() == PlayMode.REVERSED)) {
-					for (AnimationListener listener : render.listeners) listener.onEnd(entity, render.animation);
-					render.animationTimer = 0;
-					render.animation = null;
-				}
-
 			} 
 			
-			if (render.sprite != null) {
+			//Renders that only used an animation have nothing left to draw once it's over.
+			if (render.sprite != null && !(render.sprite == Render.CACHE_SPRITE && render.animation == null)) {
 				//Draw the sprite.
 				Sprite sprite = render.sprite;
-				float ang = Mappers.am.get(entity).getAngleDegrees();
+				float ang = Mappers.am.get(entity).getInterpolatedDegrees(alpha);
 
 				sprite.setCenter(pos.x, pos.y);
 				sprite.setOriginCenter();
@@ -0,0 +1,90 @@
+package com.gff.spacenauts.ashley.systems;
+
+import java.util.Comparator;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.utils.Array;
+import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.data.SpawnerData;
+import com.gff.spacenauts.listeners.timers.Spawn;
+import com.gff.spacenauts.screens.GameScreen;
+
+/**
+ * <p>
+ * Runs the level's spawners, only while the camera is close enough to them. Spawners used to be entities with their own
+ * {@link com.gff.spacenauts.ashley.components.Timers Timers}, each checking the camera's distance every frame; here they're kept
+ * sorted by height instead, and a cursor tells which ones the camera reached so far.
+ * </p>
+ *
+ * <p>
+ * A spawner becomes active once the camera is within {@link Globals#SPAWN_RADIUS} below it, and its {@link Spawn} timer starts
+ * from there. The camera only moves up, so once it's further than that above the spawner, the spawner is dropped for good.
+ * Spawners that expire, like one shot ones after spawning, are dropped as well. Each frame only active spawners are updated.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class SpawnSystem extends EntitySystem {
+
+	private Array<Spawn> pending = new Array<Spawn>();
+	private Array<Spawn> active = new Array<Spawn>();
+	private int cursor = 0;
+
+	/**
+	 * @param spawners the level's spawners, in any order.
+	 * @param priority
+	 */
+	public SpawnSystem(Array<SpawnerData> spawners, int priority) {
+		super(priority);
+
+		for (SpawnerData data : spawners)
+			pending.add(new Spawn(data));
+
+		pending.sort(new Comparator<Spawn>() {
+			@Override
+			public int compare(Spawn s1, Spawn s2) {
+				return Float.compare(s1.getData().initialPosition.y, s2.getData().initialPosition.y);
+			}
+		});
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		Entity camera = GameScreen.getEngine().getCamera();
+
+		if (camera == null) return;
+
+		float cameraY = Mappers.pm.get(camera).value.y;
+
+		while (cursor < pending.size && pending.get(cursor).getData().initialPosition.y - cameraY <= Globals.SPAWN_RADIUS)
+			active.add(pending.get(cursor++));
+
+		for (int i = active.size - 1 ; i >= 0 ; i--) {
+			Spawn spawn = active.get(i);
+
+			if (spawn.isExpired() || cameraY - spawn.getData().initialPosition.y > Globals.SPAWN_RADIUS)
+				active.removeIndex(i);
+		}
+
+		//Spawned in the order they were reached, same as their entities would've been updated.
+		for (int i = 0 ; i < active.size ; i++)
+			active.get(i).update(deltaTime, null);
+	}
+
+	/**
+	 * @return the spawners the camera didn't reach yet.
+	 */
+	public int getPendingCount() {
+		return pending.size - cursor;
+	}
+
+	/**
+	 * @return the spawners updated each frame.
+	 */
+	public int getActiveCount() {
+		return active.size;
+	}
+}
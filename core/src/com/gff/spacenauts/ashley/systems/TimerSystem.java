@@ -1,30 +1,348 @@
 package com.gff.spacenauts.ashley.systems;
 
+import com.badlogic.ashley.core.Engine;
 import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.systems.IteratingSystem;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pool.Poolable;
 import com.gff.spacenauts.ashley.Families;
 import com.gff.spacenauts.ashley.Mappers;
 import com.gff.spacenauts.ashley.components.Timers;
 import com.gff.spacenauts.listeners.TimerListener;
+import com.gff.spacenauts.screens.GameScreen;
 
 /**
- * Iterates over all {@link Timers} components and updates their listeners based on deltaTime.
- * 
+ * <p>
+ * Fires the {@link TimerListener}s of all {@link Timers} components when they're due. Rather than updating every timer each frame,
+ * timers are kept in a hierarchical timing wheel: time goes on in ticks of {@link #TICK} seconds, and each timer sits in the slot
+ * of the tick it's due on. Advancing a tick only looks at that one slot, so timers cost nothing until they fire.
+ * </p>
+ *
+ * <p>
+ * The wheel has {@link #LEVELS} levels of {@link #SLOTS} slots each. The first level holds timers due within {@link #SLOTS} ticks,
+ * one tick per slot; each level after that spans as many times more ticks per slot. Every time a level wraps around, the next level's
+ * current slot is spread back over the levels below. Timers longer than the whole wheel are cut short to fit it.
+ * </p>
+ *
+ * <p>
+ * A timer is scheduled as soon as its entity joins the engine with a Timers component, and again each time it fires unless it expired.
+ * Expired timers are then taken off their component. Removing the entity, or its Timers component, cancels all its timers; timers
+ * taken off the component by hand are dropped when due. Listeners added to an entity that's already in the engine must go through
+ * {@link #schedule(Entity, TimerListener)}, or they'll never fire.
+ * </p>
+ *
  * @author Alessio Cali'
  *
  */
-public class TimerSystem extends IteratingSystem {
+public class TimerSystem extends EntitySystem implements EntityListener {
+
+	/**
+	 * How long a tick lasts, in seconds.
+	 */
+	public static final float TICK = 0.01f;
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final long MAX_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+	private Entry[][] wheel = new Entry[LEVELS][SLOTS];
+	private long now = 0;
+	private float accumulator = 0;
+	private int scheduledCount = 0;
+	private Array<Entry> due = new Array<Entry>(false, 16);
+	private ObjectMap<Entity, Array<Entry>> entries = new ObjectMap<Entity, Array<Entry>>();
+
+	//Timers components added by schedule() while the engine was updating, which Ashley only attaches once the current system is done.
+	private ObjectMap<Entity, Timers> pendingTimers = new ObjectMap<Entity, Timers>();
+
+	private Pool<Entry> entryPool = new Pool<Entry>() {
+		@Override
+		protected Entry newObject() {
+			return new Entry();
+		}
+	};
+
+	private Pool<Array<Entry>> arrayPool = new Pool<Array<Entry>>() {
+		@Override
+		protected Array<Entry> newObject() {
+			return new Array<Entry>(false, 4);
+		}
+	};
 
 	public TimerSystem() {
-		super(Families.TIMER_FAMILY, 999);
+		super(999);
 	}
 
 	@Override
-	protected void processEntity(Entity entity, float deltaTime) {
+	public void addedToEngine(Engine engine) {
+		super.addedToEngine(engine);
+		engine.addEntityListener(Families.TIMER_FAMILY, this);
+
+		for (Entity entity : engine.getEntitiesFor(Families.TIMER_FAMILY))
+			entityAdded(entity);
+	}
+
+	@Override
+	public void removedFromEngine(Engine engine) {
+		super.removedFromEngine(engine);
+		engine.removeEntityListener(this);
+		pendingTimers.clear();
+
+		for (Entity entity : entries.keys().toArray())
+			entityRemoved(entity);
+	}
+
+	@Override
+	public void entityAdded(Entity entity) {
+		pendingTimers.remove(entity);
+
+		if (entries.containsKey(entity)) return;
+
+		entries.put(entity, arrayPool.obtain());
+
+		for (TimerListener listener : Mappers.tm.get(entity).listeners)
+			insert(entity, listener);
+	}
+
+	@Override
+	public void entityRemoved(Entity entity) {
+		Array<Entry> entityEntries = entries.remove(entity);
+
+		if (entityEntries == null) return;
+
+		for (Entry entry : entityEntries) {
+			//Due entries are freed once the current tick is over.
+			if (entry.level == Entry.DUE)
+				entry.cancelled = true;
+			else {
+				unlink(entry);
+				entryPool.free(entry);
+			}
+
+			scheduledCount--;
+		}
+
+		entityEntries.clear();
+		arrayPool.free(entityEntries);
+	}
+
+	/**
+	 * Adds a listener to the entity's {@link Timers}, adding the component as well if it's missing, and schedules it.
+	 * A component added while the engine is updating isn't attached until the current system is done, so it's remembered until
+	 * then: further listeners for the same entity go to that same component, rather than to another one that would replace it.
+	 *
+	 * @param entity
+	 * @param listener
+	 */
+	public void schedule(Entity entity, TimerListener listener) {
+		Timers timers = Mappers.tm.get(entity);
+
+		if (timers == null)
+			timers = pendingTimers.get(entity);
+
+		if (timers == null) {
+			timers = GameScreen.getEngine().createComponent(Timers.class);
+			entity.add(timers);
+
+			if (Mappers.tm.get(entity) != timers)
+				pendingTimers.put(entity, timers);
+		}
+
+		timers.listeners.add(listener);
+
+		//Otherwise it's scheduled along with the others once the entity joins.
+		if (entries.containsKey(entity))
+			insert(entity, listener);
+	}
+
+	@Override
+	public void update(float deltaTime) {
+		//Components added during other systems' updates are attached by now, or their entity is gone.
+		pendingTimers.clear();
+
+		accumulator += deltaTime;
+
+		while (accumulator >= TICK) {
+			accumulator -= TICK;
+			tick();
+		}
+	}
+
+	/**
+	 * @return how many timers are waiting to fire.
+	 */
+	public int getScheduledCount() {
+		return scheduledCount;
+	}
+
+	/**
+	 * Moves time on by one tick: levels that wrapped around are spread over the ones below, then the timers in the current slot fire.
+	 */
+	private void tick() {
+		now++;
+
+		for (int level = 1 ; level < LEVELS ; level++) {
+			if ((now & ((1L << (SLOT_BITS * level)) - 1)) != 0) break;
+
+			cascade(level, (int)(now >>> (SLOT_BITS * level)) & MASK);
+		}
+
+		int slot = (int)now & MASK;
+		Entry entry = wheel[0][slot];
+		wheel[0][slot] = null;
+
+		while (entry != null) {
+			Entry next = entry.next;
+			entry.prev = entry.next = null;
+			entry.level = Entry.DUE;
+			due.add(entry);
+			entry = next;
+		}
+
+		//Listeners may schedule, cancel or remove timers while firing, so due timers are taken off the wheel first.
+		for (int i = 0 ; i < due.size ; i++)
+			fire(due.get(i));
+
+		entryPool.freeAll(due);
+		due.clear();
+	}
+
+	private void cascade(int level, int slot) {
+		Entry entry = wheel[level][slot];
+		wheel[level][slot] = null;
+
+		while (entry != null) {
+			Entry next = entry.next;
+			entry.prev = entry.next = null;
+			link(entry);
+			entry = next;
+		}
+	}
+
+	private void fire(Entry entry) {
+		if (entry.cancelled) return;
+
+		Entity entity = entry.entity;
+		TimerListener listener = entry.listener;
 		Timers timers = Mappers.tm.get(entity);
-		
-		for (TimerListener listener : timers.listeners) 
-			listener.update(deltaTime, entity);
+
+		//Taken off the component by hand.
+		if (timers == null || !timers.listeners.contains(listener, true)) {
+			drop(entry);
+			return;
+		}
+
+		listener.fire(entity);
+
+		//The entity may have left while the listener fired.
+		if (entry.cancelled) return;
+
+		if (listener.isExpired()) {
+			timers.listeners.removeValue(listener, true);
+			drop(entry);
+		} else {
+			Entry rescheduled = entryPool.obtain();
+			rescheduled.entity = entity;
+			rescheduled.listener = listener;
+			rescheduled.deadline = now + getTicks(listener);
+			entries.get(entity).set(entries.get(entity).indexOf(entry, true), rescheduled);
+			link(rescheduled);
+		}
 	}
 
+	/**
+	 * Forgets a due timer, which is freed along with the others once the tick is over.
+	 */
+	private void drop(Entry entry) {
+		Array<Entry> entityEntries = entries.get(entry.entity);
+
+		if (entityEntries != null) entityEntries.removeValue(entry, true);
+
+		entry.cancelled = true;
+		scheduledCount--;
+	}
+
+	private void insert(Entity entity, TimerListener listener) {
+		if (listener.isExpired()) return;
+
+		Entry entry = entryPool.obtain();
+		entry.entity = entity;
+		entry.listener = listener;
+		entry.deadline = now + getTicks(listener);
+		entries.get(entity).add(entry);
+		link(entry);
+		scheduledCount++;
+	}
+
+	/**
+	 * Puts the entry in the slot of the lowest level that spans its deadline.
+	 */
+	private void link(Entry entry) {
+		long delay = entry.deadline - now;
+		int level = 0;
+
+		while (level < LEVELS - 1 && delay >= (1L << (SLOT_BITS * (level + 1))))
+			level++;
+
+		int slot = (int)(entry.deadline >>> (SLOT_BITS * level)) & MASK;
+
+		entry.level = level;
+		entry.slot = slot;
+		entry.next = wheel[level][slot];
+		if (entry.next != null) entry.next.prev = entry;
+		wheel[level][slot] = entry;
+	}
+
+	private void unlink(Entry entry) {
+		if (entry.prev != null) entry.prev.next = entry.next;
+		else wheel[entry.level][entry.slot] = entry.next;
+
+		if (entry.next != null) entry.next.prev = entry.prev;
+
+		entry.prev = entry.next = null;
+	}
+
+	/**
+	 * @return the listener's duration in ticks, at least one.
+	 */
+	private long getTicks(TimerListener listener) {
+		return Math.min(MAX_TICKS, Math.max(1, MathUtils.round(listener.getDuration() / TICK)));
+	}
+
+	/**
+	 * A listener waiting on the wheel, in a doubly linked list with the others in its slot.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	private static class Entry implements Poolable {
+
+		private static final int DUE = -1;
+
+		private Entity entity;
+		private TimerListener listener;
+		private long deadline;
+		private int level;
+		private int slot;
+		private boolean cancelled;
+		private Entry prev;
+		private Entry next;
+
+		@Override
+		public void reset() {
+			entity = null;
+			listener = null;
+			deadline = 0;
+			level = 0;
+			slot = 0;
+			cancelled = false;
+			prev = next = null;
+		}
+	}
 }
@@ -4,13 +4,18 @@ import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Pool.Poolable;
 import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.ashley.BulletArchetype;
+import com.gff.spacenauts.ashley.systems.ProjectileSystem;
 import com.gff.spacenauts.listeners.death.DeathListeners;
 import com.gff.spacenauts.listeners.hit.HitListeners;
 import com.gff.spacenauts.listeners.shoot.ShotListeners;
 
 /**
  * All data needed to instantiate bullets from a gun. In fact, this structure more or less is the abstraction of a spaceship's gun.<br>
- * GunData implements Poolable, so its instances are managed.
+ * GunData implements Poolable, so its instances are managed.<br>
+ * The bullets' common data is gathered in a {@link BulletArchetype} the first time the gun shoots. Changes to the bullets'
+ * damage, image, scale or listeners made afterwards need a call to {@link #invalidateArchetype()}.<br>
+ * Guns flagged as {@link #lightweight} shoot projectiles through the {@link ProjectileSystem} instead of bullet entities.
  * 
  * @author Alessio Cali'
  *
@@ -30,6 +35,8 @@ public class GunData implements Poolable {
 	public String shotSound;
 	public float scaleX;
 	public float scaleY;
+	public boolean lightweight;
+	private BulletArchetype archetype;
 	
 	public GunData() {
 		triggered = false;
@@ -44,6 +51,7 @@ public class GunData implements Poolable {
 		aOffset = 0;
 		shotSound = "";
 		scaleX = scaleY = Globals.UNITS_PER_PIXEL;
+		lightweight = false;
 	}
 	
 	@Override
@@ -60,6 +68,25 @@ public class GunData implements Poolable {
 		aOffset = 0;
 		shotSound = "";
 		scaleX = scaleY = Globals.UNITS_PER_PIXEL;
+		lightweight = false;
+		archetype = null;
+	}
+	
+	/**
+	 * @return the archetype of this gun's bullets, built on the first call.
+	 */
+	public BulletArchetype getArchetype () {
+		if (archetype == null)
+			archetype = new BulletArchetype(this);
+		
+		return archetype;
+	}
+	
+	/**
+	 * Drops the current archetype, so that the next shot picks up any change to the bullets' data.
+	 */
+	public void invalidateArchetype () {
+		archetype = null;
 	}
 	
 	public GunData clone () {
@@ -77,6 +104,7 @@ public class GunData implements Poolable {
 		retVal.shotSound = shotSound;
 		retVal.speed = speed;
 		retVal.triggered = false;
+		retVal.lightweight = lightweight;
 		
 		return retVal;
 	}
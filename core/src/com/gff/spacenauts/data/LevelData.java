@@ -35,11 +35,13 @@ public class LevelData implements Serializable {
 	public int levelWidth = 0;
 	public String bgm;
 	public String nextMap;
+	public String broadPhase;
 	
 	/**
 	 * Builds a new LevelData off a {@link TiledMap}. The game uses TMX maps from Tiled as a reference.
 	 * This will also set WorldGlobals.baseCameraSpeed. Originally I planned to use a one-size-fits-all speed but this has proven to be
 	 * unfeasible, since the tutorial needed a slower pace, while the first level felt better at higher speeds. 
+	 * The same goes for the collision broad phase, which falls back to {@link Globals#broadPhase} when the map doesn't set one.
 	 * 
 	 * @param map the TiledMap to load.
 	 * @return LevelData extracted from the map.
@@ -50,6 +52,7 @@ public class LevelData implements Serializable {
 		Globals.baseCameraSpeed = Float.valueOf(properties.get("camera_speed", "2.5", String.class));
 		data.bgm = "bgm/" + properties.get("bgm", "Urban-Future.mp3", String.class);
 		data.nextMap = properties.get("nextScreen", String.class);
+		data.broadPhase = properties.get("broad_phase", Globals.broadPhase, String.class);
 		data.levelHeight = properties.get("height", 30, int.class);
 		data.levelWidth = properties.get("width", 15, int.class);
 		data.initialTargetHeight = data.levelHeight - Globals.TARGET_SCREEN_HEIGHT / Globals.PIXELS_PER_UNIT / 2;
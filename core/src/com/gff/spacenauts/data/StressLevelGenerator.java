@@ -0,0 +1,150 @@
+package com.gff.spacenauts.data;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.listeners.TimerListener.TimerType;
+
+/**
+ * <p>
+ * Makes up a {@link LevelData} much larger than the game's maps, to see how the engine scales with the number of entities.
+ * The same seed and settings always give the same level, since everything is drawn from a single {@link RandomXS128} in a fixed order.
+ * The level is then built like any other, through {@link com.gff.spacenauts.Level#build() Level.build()}.
+ * </p>
+ *
+ * <p>
+ * Spawners are scattered over the whole level, above the player's starting area. Each fires {@link #spawnsPerSpawner} times, one every
+ * {@link #spawnInterval} seconds, once the camera gets near, so the level holds up to <code>spawners * spawnsPerSpawner</code> enemies.
+ * A share of them, as given by {@link #bulletHeavyShare}, are shooters, which fill the screen with bullets; the rest drift down
+ * towards the player. Obstacles are small squares, and dialog triggers strips as wide as the level.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class StressLevelGenerator {
+
+	/**
+	 * Enemies whose guns keep firing at the player.
+	 */
+	public static final String[] SHOOTERS = {"dummy", "black_interceptor", "green_tank", "purple_bomber"};
+
+	/**
+	 * Enemies that don't shoot.
+	 */
+	public static final String[] DRIFTERS = {"blue_cruiser", "rock", "bat"};
+
+	/**
+	 * Dialogs for the triggers, taken from the first level.
+	 */
+	public static final String[] DIALOGS = {"level1_001", "level1_002", "level1_003"};
+
+	private static final float OBSTACLE_SIZE = 2.5f;
+	private static final float TRIGGER_HEIGHT = 1;
+
+	public long seed = 0;
+	public int spawners = 100;
+	public int spawnsPerSpawner = 10;
+	public float spawnInterval = 1;
+	public int obstacles = 20;
+	public int dialogTriggers = 0;
+	public float bulletHeavyShare = 0.5f;
+	public int levelWidth = (int)Globals.TARGET_CAMERA_WIDTH;
+	public int levelHeight = 400;
+	public float cameraSpeed = 2.5f;
+	public String broadPhase = Globals.broadPhase;
+
+	public StressLevelGenerator() {
+	}
+
+	public StressLevelGenerator(long seed, int spawners, int spawnsPerSpawner, int obstacles, int dialogTriggers, float bulletHeavyShare) {
+		this.seed = seed;
+		this.spawners = spawners;
+		this.spawnsPerSpawner = spawnsPerSpawner;
+		this.obstacles = obstacles;
+		this.dialogTriggers = dialogTriggers;
+		this.bulletHeavyShare = bulletHeavyShare;
+	}
+
+	/**
+	 * Makes up a new level. Like {@link LevelData#loadFromMap(com.badlogic.gdx.maps.tiled.TiledMap)}, this also sets
+	 * {@link Globals#baseCameraSpeed}.
+	 *
+	 * @return the level's data, with no BGM nor next map.
+	 */
+	public LevelData generate() {
+		RandomXS128 random = new RandomXS128(seed);
+		LevelData data = new LevelData();
+
+		Globals.baseCameraSpeed = cameraSpeed;
+		data.broadPhase = broadPhase;
+		data.levelWidth = levelWidth;
+		data.levelHeight = levelHeight;
+		data.initialTargetHeight = levelHeight - Globals.TARGET_CAMERA_HEIGHT / 2;
+
+		for (int i = 0 ; i < spawners ; i++)
+			data.enemies.add(generateSpawner(random));
+
+		for (int i = 0 ; i < obstacles ; i++)
+			data.obstacles.add(generateObstacle(random));
+
+		for (int i = 0 ; i < dialogTriggers ; i++)
+			data.dialogTriggers.add(generateTrigger(random, i));
+
+		return data;
+	}
+
+	/**
+	 * @return the most enemies the level can spawn.
+	 */
+	public int getMaxEnemies() {
+		return spawners * spawnsPerSpawner;
+	}
+
+	private SpawnerData generateSpawner(RandomXS128 random) {
+		SpawnerData spawner = new SpawnerData();
+		boolean shooter = random.nextFloat() < bulletHeavyShare;
+
+		spawner.id = shooter ? SHOOTERS[random.nextInt(SHOOTERS.length)] : DRIFTERS[random.nextInt(DRIFTERS.length)];
+		spawner.initialPosition.set(random.nextFloat() * levelWidth, randomHeight(random));
+		spawner.initialAngle = -MathUtils.PI / 2;
+		spawner.releasedPowerUp = null;
+
+		//Shooters move on their own, the others need a push.
+		if (!shooter)
+			spawner.initialVelocity.set(0, -1 - random.nextFloat() * 3);
+
+		if (spawnsPerSpawner > 1) {
+			spawner.timerType = TimerType.INTERVAL_LIMITED;
+			spawner.intervalTime = spawnInterval;
+			spawner.limit = spawnsPerSpawner;
+		} else
+			spawner.timerType = TimerType.ONE_SHOT;
+
+		return spawner;
+	}
+
+	private float[] generateObstacle(RandomXS128 random) {
+		float x = random.nextFloat() * (levelWidth - OBSTACLE_SIZE);
+		float y = randomHeight(random);
+
+		return new float[] {x, y, x + OBSTACLE_SIZE, y, x + OBSTACLE_SIZE, y + OBSTACLE_SIZE, x, y + OBSTACLE_SIZE};
+	}
+
+	private DialogTriggerData generateTrigger(RandomXS128 random, int index) {
+		DialogTriggerData trigger = new DialogTriggerData();
+
+		trigger.area.set(0, randomHeight(random), levelWidth, TRIGGER_HEIGHT);
+		trigger.dialogID = DIALOGS[index % DIALOGS.length];
+
+		return trigger;
+	}
+
+	/**
+	 * @return a height between the top of the starting screen and the top of the level.
+	 */
+	private float randomHeight(RandomXS128 random) {
+		float bottom = Globals.TARGET_CAMERA_HEIGHT;
+		return bottom + random.nextFloat() * Math.max(0, levelHeight - bottom);
+	}
+}
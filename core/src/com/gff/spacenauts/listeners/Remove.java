@@ -1,11 +1,12 @@
 package com.gff.spacenauts.listeners;
 
 import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.core.PooledEngine;
 import com.badlogic.gdx.graphics.g2d.Animation;
+import com.gff.spacenauts.ashley.SpacenautsEngine;
 
 /**
- * A convenient multi-purpose listener to remove the entity when called. If used as a {@link ShotListener} it will remove the gun, but not the bullet.
+ * A convenient multi-purpose listener to remove the entity when called. If used as a {@link ShotListener} it will remove the gun, but not the bullet.<br>
+ * Removal is deferred to the end of the engine's update.
  * 
  * @author Alessio Cali'
  *
@@ -13,9 +14,9 @@ import com.badlogic.gdx.graphics.g2d.Animation;
 
 public class Remove implements AnimationListener, DeathListener, ShotListener {
 	
-	private PooledEngine engine;
+	private SpacenautsEngine engine;
 	
-	public Remove (PooledEngine engine) {
+	public Remove (SpacenautsEngine engine) {
 		this.engine = engine;
 	}
 
@@ -40,7 +41,7 @@ public class Remove implements AnimationListener, DeathListener, ShotListener {
 	}
 	
 	private void remove(Entity entity) {
-		engine.removeEntity(entity);
+		engine.deferRemoveEntity(entity);
 	}
 
 }
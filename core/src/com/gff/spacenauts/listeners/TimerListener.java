@@ -3,8 +3,6 @@ package com.gff.spacenauts.listeners;
 import com.badlogic.ashley.core.Entity;
 import com.gff.spacenauts.Logger;
 import com.gff.spacenauts.Logger.LogLevel;
-import com.gff.spacenauts.ashley.Mappers;
-import com.gff.spacenauts.ashley.components.Timers;
 
 /**
  * A multipurpose timer that schedules events for later, possibly on a regular basis. Mantained by {@link com.gff.spacenauts.ashley.systems.TimerSystem TimerSystem}.
@@ -78,25 +76,54 @@ public abstract class TimerListener {
 	 */
 	protected abstract boolean onActivation (Entity entity);
 	
+	/**
+	 * @return whether the timer expired and can be dropped.
+	 */
+	public boolean isExpired () {
+		return type == TimerType.EXPIRED;
+	}
+	
+	/**
+	 * @return how long the timer waits before firing, in seconds.
+	 */
+	public float getDuration () {
+		return duration;
+	}
+	
+	/**
+	 * Keeps time for the timer, firing it once its duration elapsed. Used where timers are polled every frame,
+	 * like by the {@link com.gff.spacenauts.ashley.systems.SpawnSystem SpawnSystem}.
+	 * 
+	 * @param delta
+	 * @param entity the timer's owner.
+	 */
 	public void update (float delta, Entity entity) {
-		if (type == TimerType.EXPIRED) {
-			Timers timers = Mappers.tm.get(entity);
-			if (timers != null) timers.listeners.removeValue(this, true);
-			return;
-		}
+		if (type == TimerType.EXPIRED) return;
 		
 		timer += delta;
 		
 		if (timer >= duration) {
-			boolean result = onActivation(entity);
+			fire(entity);
 			timer = 0;
-			
-			if (type == TimerType.ONE_SHOT && result) type = TimerType.EXPIRED;
-			
-			else if (type == TimerType.INTERVAL_LIMITED && result) {
-				count++;
-				if (count >= limit) type = TimerType.EXPIRED;
-			}
+		}
+	}
+	
+	/**
+	 * Fires the timer right away, counting the activation and expiring the timer if it's done. The 
+	 * {@link com.gff.spacenauts.ashley.systems.TimerSystem TimerSystem} keeps time for its timers itself and only calls this.
+	 * 
+	 * @param entity the timer's owner.
+	 */
+	public void fire (Entity entity) {
+		if (type == TimerType.EXPIRED) return;
+		
+		boolean result = onActivation(entity);
+		
+		if (type == TimerType.ONE_SHOT && result) type = TimerType.EXPIRED;
+		
+		else if (type == TimerType.INTERVAL_LIMITED && result) {
+			count++;
+			if (count >= limit) type = TimerType.EXPIRED;
 		}
 	}
 
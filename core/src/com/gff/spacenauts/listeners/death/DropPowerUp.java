@@ -26,7 +26,7 @@ public class DropPowerUp implements DeathListener {
 		
 		if (pos != null)
 			GameScreen.getEngine()
-			.addEntity(GameScreen.getBuilder()
+			.deferAddEntity(GameScreen.getBuilder()
 			.buildPowerUp(releasedPowerUp, pos.value.x, pos.value.y));
 	}
 
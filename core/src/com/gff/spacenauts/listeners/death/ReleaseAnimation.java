@@ -1,12 +1,14 @@
 package com.gff.spacenauts.listeners.death;
 
 import com.badlogic.ashley.core.Entity;
-import com.badlogic.ashley.core.PooledEngine;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.math.Interpolation;
 import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.Spacenauts;
+import com.gff.spacenauts.ashley.FrameProfiler;
 import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.SpacenautsEngine;
 import com.gff.spacenauts.ashley.components.Angle;
 import com.gff.spacenauts.ashley.components.Position;
 import com.gff.spacenauts.ashley.components.Removable;
@@ -23,16 +25,18 @@ import com.gff.spacenauts.listeners.Remove;
 public class ReleaseAnimation implements DeathListener {
 	
 	private static final float FADE_DURATION = 0.5f;
+	private static final String PROFILE_FADE = "ReleaseAnimation/fade animation";
+	private static final FrameProfiler.LapTimer laps = new FrameProfiler.LapTimer(Spacenauts.getProfiler());
 	
 	private Animation animation;
-	private PooledEngine engine;
+	private SpacenautsEngine engine;
 	
-	public ReleaseAnimation (Animation animation, PooledEngine engine){
+	public ReleaseAnimation (Animation animation, SpacenautsEngine engine){
 		this.animation = animation;
 		this.engine = engine;
 	}
 	
-	public ReleaseAnimation(PooledEngine engine) {
+	public ReleaseAnimation(SpacenautsEngine engine) {
 		this(null, engine);
 	}
 	
@@ -67,7 +71,9 @@ public class ReleaseAnimation implements DeathListener {
 			render.sprite = Render.CACHE_SPRITE;
 			//Null check to avoid issues with GameOver (Player's Render is removed beforehand)
 			//Should be fixed anyway.
+			laps.start();
 			render.animation = animation != null ? animation : getFadeAnimation(entityRender.sprite);
+			laps.lap(PROFILE_FADE);
 			render.scaleX = entityRender != null ? entityRender.scaleX : Globals.UNITS_PER_PIXEL;
 			render.scaleY = entityRender != null ? entityRender.scaleY : Globals.UNITS_PER_PIXEL;
 			render.listeners.add(new Remove(engine));
@@ -75,7 +81,7 @@ public class ReleaseAnimation implements DeathListener {
 			animationPos.value.set(pos.value);
 			animationAngle.value = ang != null ? ang.value : 0;
 			
-			engine.addEntity(animate);
+			engine.deferAddEntity(animate);
 		}
 	}
 }
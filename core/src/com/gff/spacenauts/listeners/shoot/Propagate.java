@@ -6,19 +6,14 @@ import com.badlogic.gdx.utils.Pools;
 import com.gff.spacenauts.Globals;
 import com.gff.spacenauts.ashley.Mappers;
 import com.gff.spacenauts.ashley.SpacenautsEngine;
-import com.gff.spacenauts.ashley.components.Angle;
 import com.gff.spacenauts.ashley.components.CollisionDamage;
 import com.gff.spacenauts.ashley.components.Death;
-import com.gff.spacenauts.ashley.components.Enemy;
-import com.gff.spacenauts.ashley.components.Friendly;
-import com.gff.spacenauts.ashley.components.Gun;
 import com.gff.spacenauts.ashley.components.Hittable;
-import com.gff.spacenauts.ashley.components.Position;
 import com.gff.spacenauts.ashley.components.Render;
-import com.gff.spacenauts.ashley.components.Timers;
 import com.gff.spacenauts.ashley.components.Velocity;
+import com.gff.spacenauts.ashley.systems.ShootingSystem;
+import com.gff.spacenauts.ashley.systems.TimerSystem;
 import com.gff.spacenauts.data.GunData;
-import com.gff.spacenauts.listeners.Remove;
 import com.gff.spacenauts.listeners.ShotListener;
 import com.gff.spacenauts.listeners.TimerListener;
 import com.gff.spacenauts.listeners.TimerListener.TimerType;
@@ -43,54 +38,22 @@ public class Propagate implements ShotListener {
 
 	@Override
 	public void onShooting(Entity gun, Entity bullet) {
-		Timers timers = Mappers.tm.get(bullet);
 		final Entity fBullet = bullet;
 		
-		if (timers == null) {
-			timers = GameScreen.getEngine().createComponent(Timers.class);
-			bullet.add(timers);
-		}
-		
-		timers.listeners.add(new TimerListener(TimerType.ONE_SHOT, delay) {
+		GameScreen.getEngine().getSystem(TimerSystem.class).schedule(bullet, new TimerListener(TimerType.ONE_SHOT, delay) {
 			
 			@Override
 			public boolean onActivation (Entity entity) {
-				//Creates a temporary gun entity that will shoot the spread lasers.
+				//Shoots the spread lasers straight from the bullet, which is then removed.
 				SpacenautsEngine engine = GameScreen.getEngine();
-				Entity tempGun = engine.createEntity();
-				
 				GunData bulletData = extractData(entity);
-				Angle bulletAng = Mappers.am.get(entity);
-				Position bulletPos = Mappers.pm.get(entity);
-				Friendly friendly = Mappers.fm.get(entity);
-				
-				Angle ang = engine.createComponent(Angle.class);
-				Position pos = engine.createComponent(Position.class);
-				Gun gun = engine.createComponent(Gun.class);
-				GunData[] data = new GunData[times];
-				
-				tempGun.add(ang).add(pos).add(gun);
-				
-				if (friendly != null) tempGun.add(engine.createComponent(Friendly.class));
-				else tempGun.add(engine.createComponent(Enemy.class));
-						
-				ang.value = bulletAng != null ? bulletAng.value : 0;
-				if (bulletPos.value != null) pos.value.set(bulletPos.value);
-				
-				for (int i = 0 ; i < data.length ; i++){
-					data[i] = bulletData.clone();
-					
-					//Creates a fan of bullets placed between [-75d, +75d] (75d = pi / 2,4 radians) 
-					// - 75d + (150d / times) * i = 75d * (2i / times - 1) 
-					data[i].aOffset = MathUtils.PI / 2.4f * (2f*i / times - 1);
-					data[i].triggered = true;
-				}
 				
-				data[0].gunShotListeners.addListener(new Remove(engine));
-				gun.guns.addAll(data);
+				//Creates a fan of bullets placed between [-75d, +75d] (75d = pi / 2,4 radians) 
+				// - 75d + (150d / times) * i = 75d * (2i / times - 1) 
+				engine.getSystem(ShootingSystem.class).fire(entity, bulletData, times, -MathUtils.PI / 2.4f, MathUtils.PI / 2.4f * 2f / times);
 				
-				engine.addEntity(tempGun);
-				engine.removeEntity(fBullet);
+				Pools.free(bulletData);
+				engine.deferRemoveEntity(fBullet);
 				return true;
 			}
 			
@@ -1,23 +1,21 @@
 package com.gff.spacenauts.listeners.shoot;
 
-import java.util.Random;
-
 import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.MathUtils;
 import com.gff.spacenauts.ashley.Mappers;
 import com.gff.spacenauts.ashley.components.Angle;
 import com.gff.spacenauts.ashley.components.Velocity;
 import com.gff.spacenauts.listeners.ShotListener;
 
 /**
- * Randomizes bullet orientation between min and max (radians).
+ * Randomizes bullet orientation between min and max (radians). Deviations are drawn from {@link MathUtils#random}, like
+ * all of the game's randomness, so that a seeded game plays the same every time.
  * 
  * @author Alessio Cali'
  *
  */
 public class RandomizeAngle implements ShotListener {
 
-	private static final Random RANDOM = new Random();
-	
 	private float min;
 	private float max;
 	
@@ -31,7 +29,7 @@ public class RandomizeAngle implements ShotListener {
 		Angle ang = Mappers.am.get(bullet);
 		Velocity vel = Mappers.vm.get(bullet);
 		
-		float deviation = min + RANDOM.nextFloat() * (max - min);
+		float deviation = min + MathUtils.random.nextFloat() * (max - min);
 		
 		if (ang != null) {
 			ang.value += deviation;
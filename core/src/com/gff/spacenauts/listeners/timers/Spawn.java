@@ -30,13 +30,17 @@ public class Spawn extends TimerListener {
 		this.data = data;
 	}
 
+	public SpawnerData getData() {
+		return data;
+	}
+
 	/**
 	 * Spawns the entity. If the entity also has a {@link Position} component, then
 	 * it sets it to the spawner position. If the entity also has a {@link Body} component,
 	 * then it sets its position to the spawner's position. If the spawner initialVelocity attribute
 	 * is non-zero, it also adds a Velocity component.
 	 * 
-	 * @param spawner The spawner entity
+	 * @param spawner The spawner entity, or null if run by a {@link com.gff.spacenauts.ashley.systems.SpawnSystem SpawnSystem}.
 	 */
 	@Override
 	protected boolean onActivation(Entity spawner){
@@ -81,7 +85,7 @@ public class Spawn extends TimerListener {
 				death.listeners.addListener(new DropPowerUp(data.releasedPowerUp));
 		}
 		
-		engine.addEntity(spawnedEntity);
+		engine.deferAddEntity(spawnedEntity);
 		return true;
 	}
 
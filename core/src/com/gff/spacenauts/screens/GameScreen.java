@@ -5,6 +5,7 @@ import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.ScreenAdapter;
 import com.badlogic.gdx.assets.AssetManager;
@@ -15,16 +16,22 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.gff.spacenauts.AssetsPaths;
 import com.gff.spacenauts.AudioManager;
 import com.gff.spacenauts.Controls;
+import com.gff.spacenauts.Globals;
 import com.gff.spacenauts.Level;
 import com.gff.spacenauts.Spacenauts;
 import com.gff.spacenauts.ashley.EntityBuilder;
 import com.gff.spacenauts.ashley.Mappers;
+import com.gff.spacenauts.ashley.PoolProfile;
 import com.gff.spacenauts.ashley.SpacenautsEngine;
+import com.gff.spacenauts.ashley.collision.BroadPhase;
 import com.gff.spacenauts.ashley.systems.AISystem;
+import com.gff.spacenauts.ashley.systems.AnimationSystem;
+import com.gff.spacenauts.ashley.systems.BatchedMovementSystem;
 import com.gff.spacenauts.ashley.systems.CameraSystem;
 import com.gff.spacenauts.ashley.systems.CollisionSystem;
 import com.gff.spacenauts.ashley.systems.DialogSystem;
@@ -33,9 +40,11 @@ import com.gff.spacenauts.ashley.systems.ImmunitySystem;
 import com.gff.spacenauts.ashley.systems.MovementSystem;
 import com.gff.spacenauts.ashley.systems.MultiplayerSystem;
 import com.gff.spacenauts.ashley.systems.PhysicsSystem;
+import com.gff.spacenauts.ashley.systems.ProjectileSystem;
 import com.gff.spacenauts.ashley.systems.RemovalSystem;
 import com.gff.spacenauts.ashley.systems.RenderingSystem;
 import com.gff.spacenauts.ashley.systems.ShootingSystem;
+import com.gff.spacenauts.ashley.systems.SpawnSystem;
 import com.gff.spacenauts.ashley.systems.SteeringSystem;
 import com.gff.spacenauts.ashley.systems.TimerSystem;
 import com.gff.spacenauts.data.LevelData;
@@ -44,7 +53,10 @@ import com.gff.spacenauts.ui.GameUI;
 import com.gff.spacenauts.ui.LevelSelecter.LevelSelectSet;
 
 /**
- * The game's main screen. It manages all required resources, from assets to UI to the engine.
+ * The game's main screen. It manages all required resources, from assets to UI to the engine.<br>
+ * A headless screen leaves out the {@link RenderingSystem}, so that a level can be simulated without drawing it, see
+ * {@link #GameScreen(String, Game, boolean, boolean)}. Animations are still played by the {@link AnimationSystem}, so entities
+ * that go away once theirs ends, like explosions, do so headless too.
  * 
  * @author Alessio Cali'
  *
@@ -60,27 +72,63 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 	private Screen nextScreen;
 	private Level currentLevel;
 	private String mapFile;
+	private LevelData levelData;
+	private TiledMap emptyMap;
 	private AssetManager assets;
 	private AudioManager audio;
 	private GameUI ui;
 	
 	private boolean playing = true;
+	private boolean seeded = false;
+	private long seed;
+	private boolean recording = false;
 	private final boolean multiplayer;
+	private final boolean headless;
 
 	public GameScreen (String mapFile, Game game) {
 		this(mapFile, game, false);
 	}
 
 	public GameScreen (String mapFile, Game game, boolean multiplayer) {
+		this(mapFile, game, multiplayer, false);
+	}
+
+	/**
+	 * @param mapFile
+	 * @param game
+	 * @param multiplayer
+	 * @param headless whether to run all systems but the {@link RenderingSystem}. The UI is still built, but it's never drawn nor updated.
+	 */
+	public GameScreen (String mapFile, Game game, boolean multiplayer, boolean headless) {
 		this.mapFile = mapFile;
 		this.game = game;
 		this.multiplayer = multiplayer;
+		this.headless = headless;
+	}
+
+	/**
+	 * Plays a level made up on the spot, for example by a {@link com.gff.spacenauts.data.StressLevelGenerator StressLevelGenerator}, 
+	 * instead of one loaded from a map. The level has no tiles to draw.
+	 * 
+	 * @param levelData
+	 * @param game
+	 * @param headless
+	 */
+	public GameScreen (LevelData levelData, Game game, boolean headless) {
+		this((String)null, game, false, headless);
+		this.levelData = levelData;
 	}
 
 	@Override
-	public void show () {		
+	public void show () {
+		//Record single player levels, which play the same every time given the same seed and input.
+		recording = Spacenauts.getRecorder() != null && !multiplayer && mapFile != null;
+		
+		if (recording) setSeed(Spacenauts.getRecorder().getSeed());
+		if (seeded) MathUtils.random.setSeed(seed);
+		
 		//Load level from file
-		LevelData lData = LevelData.loadFromMap(assets.get(mapFile, TiledMap.class));
+		LevelData lData = levelData != null ? levelData : LevelData.loadFromMap(assets.get(mapFile, TiledMap.class));
 		
 		GameOverScreen gameOverScreen;
 
@@ -140,7 +188,14 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 			}
 		}
 		
-		engine  = new SpacenautsEngine(this, gameOverScreen, nextScreen, multiplayer, 100, 1000, 100, 1500);	
+		//Size and fill the pools after what the level needed last time, or failing that, what it's expected to need.
+		PoolProfile pools = mapFile != null ? PoolProfile.load(mapFile) : null;
+		
+		if (pools == null) pools = PoolProfile.estimate(lData);
+		
+		engine  = new SpacenautsEngine(this, gameOverScreen, nextScreen, multiplayer, Math.max(100, pools.entities), Math.max(1000, 2 * pools.entities), 
+									   Math.max(100, pools.getMaxComponents()), Math.max(1500, 2 * pools.getMaxComponents()));
+		engine.prewarm(pools);
 		ui = new GameUI(this);
 		entityBuilder = new EntityBuilder(this);
 		currentLevel = new Level(lData);
@@ -156,6 +211,8 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 		Gdx.input.setCatchBackKey(false);
 		Gdx.input.setInputProcessor(null);
 		
+		if (recording) Spacenauts.getRecorder().finish();
+		
 		audio.stopAll();
 		
 		if (multiplayer) engine.sendCoop("CLOSE");
@@ -177,6 +234,8 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 	@Override
 	public void render (float delta) {	
 		if (playing) {
+			if (recording) Spacenauts.getRecorder().beginTick(delta);
+			
 			controls.update(delta);
 			audio.update(delta);
 			engine.update(delta);
@@ -206,6 +265,8 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 	public void dispose(){
 		if (assets != null)	assets.dispose();
 		
+		if (mapFile != null) engine.getPoolMarks().save(mapFile);
+		
 		engine.clear();
 		engine.clearPools();
 		engine = null;
@@ -214,6 +275,8 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 		
 		ui.dispose();
 		
+		if (emptyMap != null) emptyMap.dispose();
+		
 		if (Spacenauts.getNetworkAdapter() != null) Spacenauts.getNetworkAdapter().reset();
 	}
 
@@ -235,7 +298,7 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 		assets.load(AssetsPaths.SFX_LASER_4, Sound.class);
 		assets.load(AssetsPaths.SFX_EXPLOSION, Sound.class);
 		assets.load(AssetsPaths.SFX_POWERUP, Sound.class);
-		assets.load(mapFile, TiledMap.class);
+		if (mapFile != null) assets.load(mapFile, TiledMap.class);
 	}
 
 	@Override
@@ -248,29 +311,37 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 		
 		CameraSystem cs = new CameraSystem(this);
 		SteeringSystem ss = new SteeringSystem();
-		MovementSystem ms = new MovementSystem();
-		CollisionSystem cls = new CollisionSystem();
+		MovementSystem ms = Globals.batchedMovement ? new BatchedMovementSystem() : new MovementSystem();
+		CollisionSystem cls = new CollisionSystem(BroadPhase.Type.getByName(currentLevel.getBroadPhase()));
+		if (Globals.parallelCollisions) cls.setParallelRunner(Spacenauts.getParallelRunner());
 		HitSystem hs = new HitSystem();
 		PhysicsSystem ps = new PhysicsSystem(ms, ss, cls);
-		RenderingSystem drs = new RenderingSystem(this);
+		ProjectileSystem pjs = new ProjectileSystem();
+		AnimationSystem as = new AnimationSystem();
+		RenderingSystem drs = headless ? null : new RenderingSystem(this);
 		ShootingSystem shs = new ShootingSystem(this);
 		RemovalSystem rs = new RemovalSystem();
 		AISystem ais = new AISystem();
 		DialogSystem ds = new DialogSystem(this);
 		ImmunitySystem is = new ImmunitySystem();
 		TimerSystem ts = new TimerSystem();
+		SpawnSystem sps = new SpawnSystem(currentLevel.getSpawners(), 999);
 
 		if (multiplayer) engine.addSystem(new MultiplayerSystem());
 		
 		engine.addSystem(cs);
 		engine.addSystem(ps);
-		engine.addSystem(drs);
+		engine.addSystem(pjs);
+		engine.addSystem(as);
+		
+		if (!headless) engine.addSystem(drs);
 		engine.addSystem(hs);
 		engine.addSystem(shs);
 		engine.addSystem(rs);
 		engine.addSystem(ais);
 		engine.addSystem(ds);
 		engine.addSystem(is);
+		engine.addSystem(sps);
 		engine.addSystem(ts);
 	}
 
@@ -280,7 +351,12 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 		input.addProcessor((controls = new Controls()));
 		
 		Gdx.input.setCatchBackKey(true);
-		Gdx.input.setInputProcessor(input);
+		
+		if (recording) {
+			Spacenauts.getRecorder().start(mapFile, input);
+			Gdx.input.setInputProcessor(Spacenauts.getRecorder());
+		} else
+			Gdx.input.setInputProcessor(input);
 	}
 
 	private void initAudio() {
@@ -293,6 +369,27 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 		return engine;
 	}
 
+	/**
+	 * Makes the given engine the one systems and listeners reach through {@link #getEngine()}, for engines that don't belong to
+	 * a GameScreen, like benchmarks' synthetic ones.
+	 * 
+	 * @param engine
+	 */
+	public static void setEngine(SpacenautsEngine engine) {
+		GameScreen.engine = engine;
+	}
+
+	/**
+	 * Seeds {@link MathUtils#random}, which all of the game's randomness comes from, when the level is shown. Unless a seed is given,
+	 * or the level is recorded, the game stays unseeded.
+	 * 
+	 * @param seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		seeded = true;
+	}
+
 	public static EntityBuilder getBuilder() {
 		return entityBuilder;
 	}
@@ -301,7 +398,15 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 		return currentLevel;
 	}
 
+	/**
+	 * @return the level's map, or an empty one if the level wasn't loaded from a map.
+	 */
 	public TiledMap getMap() {
+		if (mapFile == null) {
+			if (emptyMap == null) emptyMap = new TiledMap();
+			return emptyMap;
+		}
+		
 		return assets.get(mapFile, TiledMap.class);
 	}
 
@@ -312,11 +417,29 @@ public class GameScreen extends ScreenAdapter implements Loadable {
 	public GameUI getUI() {
 		return ui;
 	}
+	
+	/**
+	 * @return the processor the screen gets its input from, UI first and {@link Controls} next.
+	 */
+	public InputProcessor getInput() {
+		return input;
+	}
 
 	public Game getGame() {
 		return game;
 	}
 	
+	/**
+	 * @return false once the level is over and the screen is about to leave for the next one.
+	 */
+	public boolean isPlaying() {
+		return playing;
+	}
+	
+	public boolean isHeadless() {
+		return headless;
+	}
+	
 	public void exit (Screen nextScreen) {
 		playing = false;
 		this.nextScreen = nextScreen;
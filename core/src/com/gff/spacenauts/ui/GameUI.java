@@ -26,7 +26,7 @@ import com.gff.spacenauts.screens.GameScreen;
 
 /**
  * The game's UI. It includes both the player's and the boss's health bars, the current score,
- * labels which state the current PowerUp and the boss's name and the DialogTable.
+ * labels which state the current PowerUp and the boss's name and the DialogTable. In debug mode, a {@link ProfilerOverlay} too.
  * 
  * @author Alessio Cali'
  *
@@ -43,6 +43,7 @@ public class GameUI extends Stage {
 	private SubBar subBar;
 	private PauseMenu pauseMenu;
 	private DialogTable dialogTable;
+	private ProfilerOverlay profilerOverlay;
 
 	public GameUI (GameScreen gameScreen) {
 		super(new FitViewport(Globals.TARGET_SCREEN_WIDTH, Globals.TARGET_SCREEN_HEIGHT));
@@ -101,6 +102,10 @@ public class GameUI extends Stage {
 		dialogTable = new DialogTable(assets);
 		uiTable.add(dialogTable).bottom().left().height(300).fillX();
 		dialogTable.setVisible(false);
+		
+		//Frame times, shown on top of everything in debug mode.
+		profilerOverlay = new ProfilerOverlay(assets);
+		root.add(profilerOverlay);
 	}
 
 	public void resize(int width, int height){
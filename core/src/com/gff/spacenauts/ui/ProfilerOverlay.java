@@ -0,0 +1,103 @@
+package com.gff.spacenauts.ui;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.gff.spacenauts.AssetsPaths;
+import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.Spacenauts;
+import com.gff.spacenauts.ashley.FrameProfiler;
+import com.gff.spacenauts.ashley.FrameProfiler.Entry;
+
+/**
+ * An UI element that lists the average, 99th percentile and maximum time, in milliseconds, of each part of the frame
+ * measured by the {@link FrameProfiler}, followed by its average allocations in kilobytes if they're measured, or its average count
+ * for counted parts like pools. Only shown in debug mode, and refreshed a few times per second.
+ * 
+ * @author Alessio Cali'
+ *
+ */
+public class ProfilerOverlay extends Label {
+
+	private static final int REFRESH_FRAMES = 30;
+	private static final float FONT_SCALE = 0.45f;
+
+	private FrameProfiler profiler = Spacenauts.getProfiler();
+	private StringBuilder builder = new StringBuilder();
+	private long lastRefresh = -REFRESH_FRAMES;
+
+	public ProfilerOverlay(AssetManager assets) {
+		super("", new Label.LabelStyle(assets.get(AssetsPaths.FONT_ATARI_28, BitmapFont.class), Color.GREEN));
+		setFontScale(FONT_SCALE);
+		setAlignment(Align.left);
+		setTouchable(Touchable.disabled);
+		setVisible(false);
+	}
+
+	@Override
+	public void act(float delta) {
+		super.act(delta);
+		setVisible(Globals.debug);
+
+		if (Globals.debug && profiler.getFrames() - lastRefresh >= REFRESH_FRAMES) {
+			lastRefresh = profiler.getFrames();
+			refresh();
+		}
+	}
+
+	private void refresh() {
+		Array<Entry> entries = profiler.getEntries();
+		builder.setLength(0);
+		builder.append("ms      avg   p99   max");
+
+		if (profiler.isMeasuringAllocations())
+			builder.append("    kB");
+
+		builder.append('\n');
+
+		for (int i = 0 ; i < entries.size ; i++) {
+			Entry entry = entries.get(i);
+			builder.append(entry.getName().replace("System", "")).append('\n').append("       ");
+
+			if (entry.getMaxCount() > 0) {
+				builder.append("x ").append(entry.getAverageCount()).append('\n');
+				continue;
+			}
+
+			appendMillis(entry.getAverage());
+			appendMillis(profiler.getP99(entry));
+			appendMillis(entry.getMax());
+
+			if (profiler.isMeasuringAllocations())
+				appendMillis(entry.getAverageBytes() * 1000000 / 1024);
+
+			builder.append('\n');
+		}
+
+		setText(builder);
+	}
+
+	/**
+	 * Appends a time with two decimal digits, padded to six characters. String.format isn't available on every backend.
+	 * Kilobytes are appended the same way, scaled as if they were milliseconds.
+	 */
+	private void appendMillis(long nanos) {
+		long hundredths = nanos / 10000;
+		long integer = hundredths / 100;
+		long decimals = hundredths % 100;
+
+		for (int i = integer < 10 ? 3 : integer < 100 ? 2 : 1 ; i > 0 ; i--)
+			builder.append(' ');
+
+		builder.append(integer).append('.');
+
+		if (decimals < 10) builder.append('0');
+
+		builder.append(decimals);
+	}
+}
@@ -0,0 +1,222 @@
+package com.gff.spacenauts.desktop;
+
+import java.util.Random;
+
+import com.badlogic.ashley.core.Entity;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+import com.gff.spacenauts.Globals;
+import com.gff.spacenauts.ashley.collision.BoundsCache;
+import com.gff.spacenauts.ashley.collision.BroadPhase;
+import com.gff.spacenauts.ashley.collision.CompactHashGrid;
+import com.gff.spacenauts.ashley.collision.HashGrid;
+import com.gff.spacenauts.ashley.collision.IncrementalHashGrid;
+import com.gff.spacenauts.ashley.collision.SweepAndPrune;
+import com.gff.spacenauts.ashley.components.Body;
+import com.gff.spacenauts.ashley.components.Position;
+
+/**
+ * <p>
+ * Compares all {@link BroadPhase} implementations on synthetic scenes. No assets nor GL context are needed.
+ * Each step moves every entity, refreshes the {@link BoundsCache}, updates the broad phase, queries it once per entity and tests every candidate's bounding
+ * rectangle, the same way {@link com.gff.spacenauts.ashley.systems.CollisionSystem CollisionSystem} does. Broad phases that return
+ * fewer candidates spend less time in the narrow phase, so both phases are timed together.
+ * </p>
+ *
+ * <p>
+ * Scenes:
+ * </p>
+ *
+ * <ul>
+ * <li><b>spread</b>: bullets and small bodies scattered over the whole collision window.</li>
+ * <li><b>column</b>: the same entities packed in a narrow vertical band, as in a boss' spread gun volley.</li>
+ * <li><b>boss</b>: the spread scene plus a boss sized body, with grids using the boss cell size.</li>
+ * </ul>
+ *
+ * Run with an optional entity count, step count and allocation budget in bytes per step, e.g. <code>BroadPhaseBenchmark 1000 2000 0</code>.
+ * The output is one CSV line per scene and broad phase, with the average time per step in microseconds, the average number of
+ * candidates per query (duplicates included), the average number of actual overlaps per step, which should match across broad phases,
+ * and the bytes allocated per step once warmed up, -1 if the VM can't tell. If any broad phase allocates more than the budget,
+ * the benchmark exits with status 1 once all lines are printed, so that scripts can fail the run.
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class BroadPhaseBenchmark {
+
+	private static final float REGULAR_CELL_SIZE = 8f;
+	private static final float BOSS_CELL_SIZE = 15f;
+	private static final float DELTA = 0.01f;
+	private static final int WARMUP_STEPS = 500;
+	private static final DesktopAllocationProbe probe = DesktopAllocationProbe.create();
+
+	public static void main (String[] arg) {
+		int entities = arg.length > 0 ? Integer.parseInt(arg[0]) : 500;
+		int steps = arg.length > 1 ? Integer.parseInt(arg[1]) : 2000;
+		long budget = arg.length > 2 ? Long.parseLong(arg[2]) : -1;
+		boolean overBudget = false;
+
+		System.out.println("scene,broad_phase,entities,us_per_step,candidates_per_query,hits_per_step,bytes_per_step");
+
+		for (String scene : new String[] {"spread", "column", "boss"}) {
+			for (BroadPhase.Type type : BroadPhase.Type.values()) {
+				long bytes = run(scene, type, entities, steps);
+
+				if (budget >= 0 && bytes > budget) {
+					System.err.println(scene + "," + type.getName() + ": " + bytes + " bytes per step, over the budget of " + budget);
+					overBudget = true;
+				}
+			}
+		}
+
+		if (overBudget)
+			System.exit(1);
+	}
+
+	/**
+	 * @return the bytes allocated per step once warmed up, or -1 if they can't be measured.
+	 */
+	private static long run (String scene, BroadPhase.Type type, int count, int steps) {
+		float width = Globals.TARGET_CAMERA_WIDTH;
+		float height = Globals.TARGET_CAMERA_HEIGHT;
+		float cellSize = scene.equals("boss") ? BOSS_CELL_SIZE : REGULAR_CELL_SIZE;
+		Random random = new Random(42);
+		Vector2 center = new Vector2(width / 2, height / 2);
+
+		BoundsCache bounds = new BoundsCache();
+		BroadPhase broadPhase;
+
+		switch (type) {
+		case INCREMENTAL:
+			broadPhase = new IncrementalHashGrid(width, height, cellSize, bounds);
+			break;
+		case COMPACT:
+			broadPhase = new CompactHashGrid(width, height, cellSize, bounds);
+			break;
+		case SAP:
+			broadPhase = new SweepAndPrune(width, height, bounds);
+			break;
+		case REBUILD:
+		default:
+			broadPhase = new HashGrid(width, height, cellSize, bounds);
+			break;
+		}
+
+		Entity[] entities = new Entity[count + 1];
+		Vector2[] velocities = new Vector2[count + 1];
+		float bandWidth = scene.equals("column") ? 2f : width;
+
+		for (int i = 0 ; i < count ; i++) {
+			Entity entity = new Entity();
+			Position pos = new Position();
+			pos.value.set(center.x - bandWidth / 2 + random.nextFloat() * bandWidth, random.nextFloat() * height);
+			entity.add(pos);
+
+			//One entity in four has a small body, the rest are bullets.
+			if (i % 4 == 0) {
+				Body body = new Body();
+				body.polygon.setVertices(new float[] {-0.5f, -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f});
+				body.polygon.setPosition(pos.value.x, pos.value.y);
+				entity.add(body);
+				velocities[i] = new Vector2(random.nextFloat() - 0.5f, -1f);
+			} else {
+				velocities[i] = new Vector2(random.nextFloat() * 2 - 1, -1).nor().scl(10 + random.nextFloat() * 10);
+			}
+
+			entities[i] = entity;
+		}
+
+		int total = count;
+
+		if (scene.equals("boss")) {
+			Entity boss = new Entity();
+			Position pos = new Position();
+			Body body = new Body();
+			pos.value.set(center.x, height * 0.8f);
+			body.polygon.setVertices(new float[] {-6, -4, 6, -4, 6, 4, -6, 4});
+			body.polygon.setPosition(pos.value.x, pos.value.y);
+			boss.add(pos).add(body);
+			entities[count] = boss;
+			velocities[count] = new Vector2();
+			total++;
+		}
+
+		for (int i = 0 ; i < total ; i++) {
+			bounds.set(i, entities[i]);
+			broadPhase.insert(i, entities[i]);
+		}
+
+		IntArray buffer = new IntArray();
+		int[] stamps = new int[total];
+		int epoch = 0;
+		long candidates = 0;
+		long hits = 0;
+		long start = 0;
+		long startBytes = 0;
+
+		for (int step = 0 ; step < WARMUP_STEPS + steps ; step++) {
+			if (step == WARMUP_STEPS) {
+				start = System.nanoTime();
+				startBytes = probe != null ? probe.getAllocatedBytes() : 0;
+				candidates = 0;
+				hits = 0;
+			}
+
+			for (int i = 0 ; i < total ; i++) {
+				Position pos = entities[i].getComponent(Position.class);
+				pos.value.mulAdd(velocities[i], DELTA);
+
+				//Wrap around the window to keep the density constant.
+				if (pos.value.y < 0) pos.value.y += height;
+				if (pos.value.x < center.x - bandWidth / 2) pos.value.x += bandWidth;
+				if (pos.value.x > center.x + bandWidth / 2) pos.value.x -= bandWidth;
+
+				Body body = entities[i].getComponent(Body.class);
+
+				if (body != null) body.polygon.setPosition(pos.value.x, pos.value.y);
+
+				bounds.set(i, entities[i]);
+			}
+
+			broadPhase.update(center);
+
+			for (int i = 0 ; i < total ; i++) {
+				buffer.clear();
+				broadPhase.query(entities[i], buffer);
+				candidates += buffer.size;
+				epoch++;
+
+				//Grids report entities once per shared cell, so duplicates are skipped like CollisionSystem does.
+				for (int j = 0 ; j < buffer.size ; j++) {
+					int other = buffer.get(j);
+
+					if (other == i || stamps[other] == epoch) continue;
+
+					stamps[other] = epoch;
+
+					if (overlaps(bounds, i, other))
+						hits++;
+				}
+			}
+		}
+
+		long elapsed = System.nanoTime() - start;
+		long bytes = probe != null ? (probe.getAllocatedBytes() - startBytes) / steps : -1;
+
+		System.out.println(scene + "," + type.getName() + "," + total + "," + (elapsed / 1000 / steps) + "," + (candidates / steps / total) + "," + (hits / steps) + "," + bytes);
+
+		return bytes;
+	}
+
+	private static boolean overlaps (BoundsCache bounds, int slot, int other) {
+		if (bounds.isPoint(slot) && bounds.isPoint(other)) {
+			return false;
+		} else if (bounds.isPoint(slot)) {
+			return bounds.contains(other, bounds.getMinX(slot), bounds.getMinY(slot));
+		} else if (bounds.isPoint(other)) {
+			return bounds.contains(slot, bounds.getMinX(other), bounds.getMinY(other));
+		} else {
+			return bounds.overlaps(slot, other);
+		}
+	}
+}
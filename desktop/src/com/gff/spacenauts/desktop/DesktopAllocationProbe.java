@@ -0,0 +1,81 @@
+package com.gff.spacenauts.desktop;
+
+import java.lang.management.ManagementFactory;
+
+import com.gff.spacenauts.ashley.AllocationProbe;
+
+/**
+ * <p>
+ * Measures allocations through the HotSpot specific {@link com.sun.management.ThreadMXBean}, which counts the bytes allocated by each thread.
+ * </p>
+ * 
+ * <p>
+ * Work split through a {@link DesktopRunner} is allocated on its threads rather than the calling one, so when given a runner
+ * the probe adds up their counters too. Since the caller waits for the runner's tasks to end, whatever they allocated is
+ * accounted to the part of the frame that ran them.
+ * </p>
+ * 
+ * @author Alessio Cali'
+ *
+ */
+public class DesktopAllocationProbe implements AllocationProbe {
+
+	private final com.sun.management.ThreadMXBean bean;
+	private final long[] helpers;
+
+	private DesktopAllocationProbe (com.sun.management.ThreadMXBean bean, long[] helpers) {
+		this.bean = bean;
+		this.helpers = helpers;
+	}
+
+	/**
+	 * @return a new probe that only measures the calling thread, or null if the VM can't measure allocations per thread.
+	 */
+	public static DesktopAllocationProbe create () {
+		return create(null);
+	}
+
+	/**
+	 * @param runner the runner whose threads work on behalf of the calling one, or null if there's none.
+	 * @return a new probe, or null if the VM can't measure allocations per thread.
+	 */
+	public static DesktopAllocationProbe create (DesktopRunner runner) {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+
+		if (!sunBean.isThreadAllocatedMemorySupported())
+			return null;
+
+		sunBean.setThreadAllocatedMemoryEnabled(true);
+
+		Thread[] threads = runner != null ? runner.getThreads() : new Thread[0];
+		long[] helpers = new long[threads.length];
+
+		for (int i = 0 ; i < threads.length ; i++)
+			helpers[i] = threads[i].getId();
+
+		return new DesktopAllocationProbe(sunBean, helpers);
+	}
+
+	@Override
+	public long getAllocatedBytes () {
+		long current = Thread.currentThread().getId();
+		long bytes = bean.getThreadAllocatedBytes(current);
+
+		if (helpers.length == 0)
+			return bytes;
+
+		long[] helperBytes = bean.getThreadAllocatedBytes(helpers);
+
+		//Threads that ended report -1. A helper asking for itself is already counted.
+		for (int i = 0 ; i < helpers.length ; i++)
+			if (helpers[i] != current && helperBytes[i] > 0)
+				bytes += helperBytes[i];
+
+		return bytes;
+	}
+}
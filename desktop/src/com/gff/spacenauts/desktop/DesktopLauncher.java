@@ -1,17 +1,44 @@
 package com.gff.spacenauts.desktop;
 
+import java.io.File;
+
 import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.gff.spacenauts.InputRecorder;
 import com.gff.spacenauts.Spacenauts;
 import com.gff.spacenauts.desktop.net.InetAdapter;
 
+/**
+ * Starts the desktop game. Pass <code>--profile &lt;file.csv&gt; [run label]</code> to append frame times to a CSV file, see {@link ProfilerCsvWriter}.
+ * Allocations are measured whenever the VM supports it. Pass <code>--record &lt;file&gt; [seed]</code> to record single player levels
+ * for {@link HeadlessSimulation} to replay, see {@link InputRecorder}.
+ * 
+ * @author Alessio Cali'
+ *
+ */
 public class DesktopLauncher {
 	public static void main (String[] arg) {
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
 		config.width = 480;
 		config.height = 800;
 		config.resizable = true;
-		final Spacenauts game = new Spacenauts(new InetAdapter());
+		DesktopRunner runner = new DesktopRunner();
+		final Spacenauts game = new Spacenauts(new InetAdapter(), runner);
+		
+		Spacenauts.getProfiler().setAllocationProbe(DesktopAllocationProbe.create(runner));
+		
+		for (int i = 0 ; i < arg.length - 1 ; i++) {
+			boolean hasValue = i + 2 < arg.length && !arg[i + 2].startsWith("--");
+			
+			if (arg[i].equals("--profile"))
+				Spacenauts.getProfiler().setListener(new ProfilerCsvWriter(new File(arg[i + 1]), hasValue ? arg[i + 2] : "default"));
+			
+			else if (arg[i].equals("--record"))
+				Spacenauts.setRecorder(new InputRecorder(new FileHandle(new File(arg[i + 1])), 
+														 hasValue ? Long.parseLong(arg[i + 2]) : System.currentTimeMillis()));
+		}
+		
 		new LwjglApplication(game, config);
 	}
 }
@@ -0,0 +1,184 @@
+package com.gff.spacenauts.desktop;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.gff.spacenauts.ashley.collision.ParallelRunner;
+
+/**
+ * <p>
+ * A {@link ParallelRunner} backed by a fixed set of threads, one less than the available processors: the calling thread runs
+ * the first task of each batch itself, then helps with the rest and waits for the others.
+ * </p>
+ *
+ * <p>
+ * Threads are started once and wait on a monitor between batches. A batch only publishes its task and bumps a counter,
+ * and threads take indices off it until none is left, so nothing is allocated per batch. Threads are daemons, so a runner
+ * that wasn't disposed doesn't keep the JVM alive.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class DesktopRunner implements ParallelRunner {
+
+	private final int parallelism;
+	private final Thread[] threads;
+	private final Object lock = new Object();
+
+	//The current batch, guarded by lock.
+	private Task task;
+	private int count = 0;
+	private int next = 0;
+	private int pending = 0;
+	private int batch = 0;
+	private RuntimeException failure;
+	private boolean disposed = false;
+
+	public DesktopRunner () {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public DesktopRunner (int parallelism) {
+		this.parallelism = Math.max(parallelism, 1);
+
+		threads = new Thread[Math.max(this.parallelism - 1, 1)];
+
+		for (int i = 0 ; i < threads.length ; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					work();
+				}
+			}, "ParallelRunner-" + i);
+
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+	}
+
+	@Override
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @return the runner's own threads, which don't include the calling one.
+	 */
+	public Thread[] getThreads() {
+		return threads;
+	}
+
+	@Override
+	public void run(Task task, int count) {
+		if (count <= 0) return;
+
+		synchronized (lock) {
+			if (disposed) throw new GdxRuntimeException("Runner already disposed");
+
+			this.task = task;
+			this.count = count;
+			next = 1;
+			pending = count - 1;
+			failure = null;
+			batch++;
+			lock.notifyAll();
+		}
+
+		RuntimeException mainFailure = null;
+
+		try {
+			task.run(0);
+		} catch (RuntimeException e) {
+			mainFailure = e;
+		}
+
+		while (runNext());
+
+		boolean interrupted = false;
+
+		//Wait for all tasks even if one failed, so none is left running on a stale batch.
+		synchronized (lock) {
+			while (pending > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+					if (failure == null) failure = new GdxRuntimeException("Interrupted while waiting for tasks", e);
+				}
+			}
+
+			this.task = null;
+
+			if (mainFailure == null) mainFailure = failure;
+		}
+
+		if (interrupted) Thread.currentThread().interrupt();
+		if (mainFailure != null) throw mainFailure;
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (lock) {
+			disposed = true;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * The loop each thread runs: waits for a new batch, then takes its tasks until none is left.
+	 */
+	private void work() {
+		int seen = 0;
+
+		while (true) {
+			synchronized (lock) {
+				while (batch == seen && !disposed) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+
+				if (disposed) return;
+
+				seen = batch;
+			}
+
+			while (runNext());
+		}
+	}
+
+	/**
+	 * Runs the next task of the current batch, if any is left.
+	 *
+	 * @return whether a task was run.
+	 */
+	private boolean runNext() {
+		Task current;
+		int index;
+
+		synchronized (lock) {
+			if (task == null || next >= count) return false;
+
+			current = task;
+			index = next++;
+		}
+
+		Throwable thrown = null;
+
+		try {
+			current.run(index);
+		} catch (Throwable t) {
+			thrown = t;
+		}
+
+		synchronized (lock) {
+			if (thrown != null && failure == null)
+				failure = new GdxRuntimeException("Task " + index + " failed", thrown);
+
+			if (--pending == 0) lock.notifyAll();
+		}
+
+		return true;
+	}
+}
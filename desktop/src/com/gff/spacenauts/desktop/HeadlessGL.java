@@ -0,0 +1,68 @@
+package com.gff.spacenauts.desktop;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.graphics.GL20;
+
+/**
+ * <p>
+ * A {@link GL20} that does nothing, for the headless backend which has none. Textures, meshes, sprite batches and stages can
+ * then be created as usual, without a GPU.
+ * </p>
+ * 
+ * <p>
+ * Every call returns zero, false or null, except those that would make libGDX give up: objects are created with
+ * id 1, shaders always compile and link, framebuffers are always complete and strings are empty.
+ * </p>
+ * 
+ * @author Alessio Cali'
+ *
+ */
+public class HeadlessGL implements InvocationHandler {
+	
+	private HeadlessGL () {
+	}
+	
+	public static GL20 create () {
+		return (GL20)Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] {GL20.class}, new HeadlessGL());
+	}
+
+	@Override
+	public Object invoke (Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		Class<?> type = method.getReturnType();
+		
+		if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+			int pname = (Integer)args[1];
+			IntBuffer params = (IntBuffer)args[2];
+			params.put(params.position(), pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS ? 1 : 0);
+			return null;
+		}
+		
+		if (name.equals("glCheckFramebufferStatus"))
+			return GL20.GL_FRAMEBUFFER_COMPLETE;
+		
+		if (name.startsWith("glCreate") || name.startsWith("glGen"))
+			return type == int.class ? 1 : null;
+		
+		if (name.equals("toString"))
+			return "HeadlessGL";
+		
+		if (type == String.class)
+			return "";
+		
+		if (type == int.class)
+			return 0;
+		
+		if (type == boolean.class)
+			return false;
+		
+		if (type == float.class)
+			return 0f;
+		
+		return null;
+	}
+}
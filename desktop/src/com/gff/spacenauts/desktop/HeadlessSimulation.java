@@ -0,0 +1,282 @@
+package com.gff.spacenauts.desktop;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.gff.spacenauts.InputScript;
+import com.gff.spacenauts.Spacenauts;
+import com.gff.spacenauts.ashley.FrameProfiler;
+import com.gff.spacenauts.ashley.FrameProfiler.Entry;
+import com.gff.spacenauts.data.StressLevelGenerator;
+import com.gff.spacenauts.screens.GameScreen;
+
+/**
+ * <p>
+ * Plays a level with no window, no GPU and no sound, as fast as possible, and traces how long each tick takes. The level is loaded
+ * the same way the game does, through a headless {@link GameScreen} which runs all of its systems but the rendering one.
+ * GL calls go to a {@link HeadlessGL}, audio to the headless backend's mock.
+ * </p>
+ *
+ * <p>
+ * Each tick feeds the screen the events of an optional {@link InputScript}, then updates it by a fixed step. The simulation
+ * stops after the given number of ticks, or once the level is over, whether won or lost.
+ * </p>
+ * 
+ * <p>
+ * Scripts recorded by an {@link com.gff.spacenauts.InputRecorder InputRecorder} are replayed exactly: the game is seeded as it was,
+ * each tick lasts as long as it did, and the simulation stops with the recording. Pass <code>replay</code> in place of the map file
+ * to play the map the script was recorded on.
+ * </p>
+ *
+ * <p>
+ * Run from the assets folder, for example through <code>gradle desktop:simulate -PsimArgs="maps/level1.tmx --trace /tmp/trace.csv"</code>.
+ * Arguments are the map file, <code>replay</code>, or <code>stress</code> for a level made up by a {@link StressLevelGenerator}, and any of:
+ * </p>
+ *
+ * <ul>
+ * <li><b>--ticks &lt;n&gt;</b>: the most ticks to run, 36000 by default.</li>
+ * <li><b>--step &lt;seconds&gt;</b>: the fixed step, 1/60 by default. Recordings use their own.</li>
+ * <li><b>--input &lt;script&gt;</b>: the input script.</li>
+ * <li><b>--trace &lt;file.csv&gt;</b>: where to write the trace, <code>tick,part,us,bytes</code>, one line per tick for the whole tick
+ * and one per part measured by the {@link FrameProfiler}. Bytes are empty if the VM can't measure them.</li>
+ * <li><b>--alloc-budget &lt;bytes&gt;</b>: exit with status 1 if the last window of frames allocated more than this many bytes per frame on average.</li>
+ * <li><b>--seed, --spawners, --spawns, --obstacles, --dialogs &lt;n&gt;</b> and <b>--bullet-share &lt;0..1&gt;</b>: the stress level's settings,
+ * see {@link StressLevelGenerator}.</li>
+ * </ul>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class HeadlessSimulation extends Spacenauts implements FrameProfiler.Listener {
+
+	private static final int SCREEN_WIDTH = 480;
+	private static final int SCREEN_HEIGHT = 800;
+
+	private String mapFile;
+	private long maxTicks = 36000;
+	private float step = 1 / 60f;
+	private InputScript script;
+	private File traceFile;
+	private long allocationBudget = -1;
+	private StressLevelGenerator generator;
+
+	private GameScreen screen;
+	private Writer trace;
+	private long tick = 0;
+	private long totalNanos = 0;
+	private long maxNanos = 0;
+	private boolean finished = false;
+
+	public static void main (String[] arg) {
+		if (arg.length == 0) {
+			System.err.println("Usage: HeadlessSimulation <map.tmx | replay | stress> [--ticks n] [--step seconds] [--input script] [--trace file.csv] [--alloc-budget bytes]"
+							 + " [--seed n] [--spawners n] [--spawns n] [--obstacles n] [--dialogs n] [--bullet-share share]");
+			System.exit(2);
+		}
+
+		HeadlessSimulation simulation = new HeadlessSimulation(arg[0]);
+		StressLevelGenerator generator = new StressLevelGenerator();
+
+		for (int i = 1 ; i < arg.length - 1 ; i += 2) {
+			if (arg[i].equals("--ticks")) simulation.maxTicks = Long.parseLong(arg[i + 1]);
+			else if (arg[i].equals("--step")) simulation.step = Float.parseFloat(arg[i + 1]);
+			else if (arg[i].equals("--input")) simulation.script = InputScript.parse(readFile(arg[i + 1]));
+			else if (arg[i].equals("--trace")) simulation.traceFile = new File(arg[i + 1]);
+			else if (arg[i].equals("--alloc-budget")) simulation.allocationBudget = Long.parseLong(arg[i + 1]);
+			else if (arg[i].equals("--seed")) generator.seed = Long.parseLong(arg[i + 1]);
+			else if (arg[i].equals("--spawners")) generator.spawners = Integer.parseInt(arg[i + 1]);
+			else if (arg[i].equals("--spawns")) generator.spawnsPerSpawner = Integer.parseInt(arg[i + 1]);
+			else if (arg[i].equals("--obstacles")) generator.obstacles = Integer.parseInt(arg[i + 1]);
+			else if (arg[i].equals("--dialogs")) generator.dialogTriggers = Integer.parseInt(arg[i + 1]);
+			else if (arg[i].equals("--bullet-share")) generator.bulletHeavyShare = Float.parseFloat(arg[i + 1]);
+			else throw new GdxRuntimeException("Unknown option: " + arg[i]);
+		}
+
+		if (arg[0].equals("stress"))
+			simulation.generator = generator;
+
+		if (arg[0].equals("replay")) {
+			if (simulation.script == null || simulation.script.getMap() == null)
+				throw new GdxRuntimeException("Replays need a recording, given through --input.");
+
+			simulation.mapFile = simulation.script.getMap();
+		}
+
+		//A recording is over with its last tick.
+		if (simulation.script != null && simulation.script.hasSteps())
+			simulation.maxTicks = Math.min(simulation.maxTicks, simulation.script.getLastTick() + 1);
+
+		//The application runs on its own thread, whose failures must fail the whole run.
+		Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException (Thread thread, Throwable e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+		});
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.renderInterval = 0;
+		new HeadlessApplication(simulation, config);
+	}
+
+	public HeadlessSimulation (String mapFile) {
+		super(null, new DesktopRunner());
+		this.mapFile = mapFile;
+	}
+
+	@Override
+	public void create () {
+		initPrefs();
+
+		Gdx.gl = Gdx.gl20 = HeadlessGL.create();
+		Gdx.graphics = new ScreenSizeGraphics();
+
+		FrameProfiler profiler = getProfiler();
+		profiler.setListener(this);
+		profiler.setAllocationProbe(DesktopAllocationProbe.create((DesktopRunner)getParallelRunner()));
+
+		if (generator != null) {
+			screen = new GameScreen(generator.generate(), this, true);
+			System.out.println("Stress level, seed " + generator.seed + ": " + generator.spawners + " spawners, up to " + generator.getMaxEnemies() + " enemies");
+		} else
+			screen = new GameScreen(mapFile, this, false, true);
+
+		if (script != null && script.isSeeded())
+			screen.setSeed(script.getSeed());
+
+		AssetManager assets = new AssetManager();
+		screen.preload(assets);
+		assets.finishLoading();
+		screen.handAssets(assets);
+		setScreen(screen);
+		screen.resize(SCREEN_WIDTH, SCREEN_HEIGHT);
+
+		if (traceFile != null) {
+			try {
+				trace = new BufferedWriter(new FileWriter(traceFile));
+				trace.write("tick,part,us,bytes\n");
+			} catch (IOException e) {
+				throw new GdxRuntimeException("Couldn't write to " + traceFile, e);
+			}
+		}
+	}
+
+	@Override
+	public void render () {
+		if (finished) return;
+
+		if (tick >= maxTicks || !screen.isPlaying()) {
+			finished = true;
+			Gdx.app.exit();
+			return;
+		}
+
+		float delta = step;
+
+		//The headless backend drops the screen's input processor, so events are fed to it directly.
+		if (script != null) {
+			script.replay(tick, screen.getInput());
+			delta = script.getStep(tick, step);
+		}
+
+		long start = System.nanoTime();
+		screen.render(delta);
+		long elapsed = System.nanoTime() - start;
+
+		totalNanos += elapsed;
+		maxNanos = Math.max(maxNanos, elapsed);
+
+		if (trace != null)
+			writeTick(elapsed);
+
+		tick++;
+	}
+
+	@Override
+	public void onWindow (FrameProfiler profiler) {
+		Entry frame = profiler.getEntry(FrameProfiler.FRAME);
+
+		System.out.println("tick " + tick + ": " + (frame.getAverage() / 1000) + " us per frame, " + (profiler.getP99(frame) / 1000) + " us p99"
+						 + (profiler.isMeasuringAllocations() ? ", " + frame.getAverageBytes() + " bytes" : ""));
+	}
+
+	@Override
+	public void dispose () {
+		FrameProfiler profiler = getProfiler();
+		boolean overBudget = allocationBudget >= 0 && profiler.exceedsAllocationBudget(allocationBudget);
+
+		if (trace != null) {
+			try {
+				trace.close();
+			} catch (IOException e) {
+				System.err.println("Couldn't close " + traceFile + ": " + e.getMessage());
+			}
+		}
+
+		System.out.println(mapFile + ": " + tick + " ticks, " + (tick > 0 ? totalNanos / tick / 1000 : 0) + " us per tick on average, "
+						 + (maxNanos / 1000) + " us at most, level " + (screen.isPlaying() ? "still going" : "over"));
+
+		if (overBudget)
+			System.err.println("Over the allocation budget of " + allocationBudget + " bytes per frame: "
+							 + profiler.getEntry(FrameProfiler.FRAME).getAverageBytes());
+
+		super.dispose();
+		System.exit(overBudget ? 1 : 0);
+	}
+
+	private void writeTick (long elapsed) {
+		FrameProfiler profiler = getProfiler();
+		Array<Entry> entries = profiler.getEntries();
+		boolean bytes = profiler.isMeasuringAllocations();
+
+		try {
+			trace.write(tick + ",Tick," + (elapsed / 1000) + ",\n");
+
+			for (int i = 0 ; i < entries.size ; i++) {
+				Entry entry = entries.get(i);
+
+				//Counted parts, like pools, have no time of their own.
+				if (entry.getMaxCount() > 0) continue;
+
+				trace.write(tick + "," + entry.getName() + "," + (entry.getLast() / 1000) + "," + (bytes ? String.valueOf(entry.getLastBytes()) : "") + "\n");
+			}
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Couldn't write to " + traceFile, e);
+		}
+	}
+
+	private static String readFile (String path) {
+		return new FileHandle(new File(path)).readString();
+	}
+
+	/**
+	 * The headless backend's graphics have no size, which would keep the camera from turning touches into world coordinates.
+	 *
+	 * @author Alessio Cali'
+	 *
+	 */
+	private static class ScreenSizeGraphics extends MockGraphics {
+
+		@Override
+		public int getWidth () {
+			return SCREEN_WIDTH;
+		}
+
+		@Override
+		public int getHeight () {
+			return SCREEN_HEIGHT;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.gff.spacenauts.desktop;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import com.badlogic.gdx.utils.Array;
+import com.gff.spacenauts.Logger;
+import com.gff.spacenauts.Logger.LogLevel;
+import com.gff.spacenauts.ashley.FrameProfiler;
+import com.gff.spacenauts.ashley.FrameProfiler.Entry;
+
+/**
+ * <p>
+ * Appends the {@link FrameProfiler}'s figures to a CSV file once per window, one line per part of the frame:
+ * </p>
+ *
+ * <div>
+ * <code>run,frame,part,avg_us,p99_us,max_us,avg_bytes,max_bytes,avg_count,max_count</code>
+ * </div>
+ *
+ * <p>
+ * The run column is a label given on the command line, like a build or commit name, so that files from several builds can be
+ * merged and compared. Bytes are left empty when allocations aren't measured, and counts are those of pools and the like, see
+ * {@link FrameProfiler#count(Object, int)}. The header is only written when the file is new.
+ * </p>
+ *
+ * @author Alessio Cali'
+ *
+ */
+public class ProfilerCsvWriter implements FrameProfiler.Listener {
+
+	private static final String TAG = "ProfilerCsvWriter";
+
+	private final File file;
+	private final String run;
+	private final StringBuilder builder = new StringBuilder();
+
+	public ProfilerCsvWriter (File file, String run) {
+		this.file = file;
+		this.run = run.replace(',', '_');
+	}
+
+	@Override
+	public void onWindow(FrameProfiler profiler) {
+		boolean header = !file.exists() || file.length() == 0;
+		Array<Entry> entries = profiler.getEntries();
+		builder.setLength(0);
+
+		if (header)
+			builder.append("run,frame,part,avg_us,p99_us,max_us,avg_bytes,max_bytes,avg_count,max_count\n");
+
+		for (int i = 0 ; i < entries.size ; i++) {
+			Entry entry = entries.get(i);
+
+			builder.append(run).append(',')
+				   .append(profiler.getFrames()).append(',')
+				   .append(entry.getName()).append(',')
+				   .append(entry.getAverage() / 1000).append(',')
+				   .append(profiler.getP99(entry) / 1000).append(',')
+				   .append(entry.getMax() / 1000).append(',');
+
+			if (profiler.isMeasuringAllocations())
+				builder.append(entry.getAverageBytes()).append(',').append(entry.getMaxBytes());
+			else
+				builder.append(',');
+
+			builder.append(',').append(entry.getAverageCount()).append(',').append(entry.getMaxCount()).append('\n');
+		}
+
+		Writer writer = null;
+
+		try {
+			writer = new FileWriter(file, true);
+			writer.write(builder.toString());
+		} catch (IOException e) {
+			Logger.log(LogLevel.ERROR, TAG, "Couldn't write to " + file + ": " + e.getMessage());
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					Logger.log(LogLevel.ERROR, TAG, "Couldn't close " + file + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+}